@@ -2,7 +2,9 @@ package org.livingdoc.intellij;
 
 import com.intellij.openapi.components.ApplicationComponent;
 import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.common.PluginExecutors;
 import org.livingdoc.intellij.common.PluginProperties;
+import org.livingdoc.intellij.run.RunnerDaemonPool;
 
 /**
  * To register an action on IDEA startup.
@@ -18,6 +20,8 @@ public class PluginRegistration implements ApplicationComponent {
     @Override
     public void disposeComponent() {
         // Disposes system resources.
+        PluginExecutors.shutdown();
+        RunnerDaemonPool.getInstance().dispose();
     }
 
     @NotNull
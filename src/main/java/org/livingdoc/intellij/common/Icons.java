@@ -1,5 +1,6 @@
 package org.livingdoc.intellij.common;
 
+import com.intellij.icons.AllIcons;
 import com.intellij.openapi.util.IconLoader;
 
 import javax.swing.*;
@@ -16,6 +17,7 @@ public final class Icons {
     public static final Icon SUCCESS = IconLoader.getIcon("/icons/success.png");
     public static final Icon SUCCESS_DIFF = IconLoader.getIcon("/icons/success_diff.png");
     public static final Icon SUCCESS_WORKING = IconLoader.getIcon("/icons/success_working.png");
+    public static final Icon RUNNING = AllIcons.Actions.Execute;
 
     private Icons() {
         // Utility class.
@@ -0,0 +1,145 @@
+package org.livingdoc.intellij.common;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools owned by the plugin. All of them use named daemon threads (<i>LivingDoc name #n</i>)
+ * and they are shut down by {@link #shutdown()} when the plugin is disposed.<br>
+ * NOTE: Pool sizes are configured in <b>config.properties</b>
+ */
+public final class PluginExecutors {
+
+    private static final Logger LOG = Logger.getInstance(PluginExecutors.class);
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private static final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+    private static ExecutorService remoteExecutor;
+    private static ExecutorService dispatchExecutor;
+    private static ScheduledExecutorService scheduler;
+
+    private PluginExecutors() {
+        // Utility class.
+    }
+
+    /**
+     * Returns the shared executor for the calls to the LivingDoc server.
+     *
+     * @return {@link ExecutorService} bounded to <code>livingdoc.executor.remote.threads</code> threads.
+     */
+    public static synchronized ExecutorService getRemoteExecutor() {
+
+        if (remoteExecutor == null) {
+            remoteExecutor = newBoundedExecutor("Remote",
+                    Integer.parseInt(PluginProperties.getValue("livingdoc.executor.remote.threads")));
+        }
+        return remoteExecutor;
+    }
+
+    /**
+     * Returns the shared executor that feeds the specifications to the runner JVMs. Its tasks may wait for
+     * specifications, so it is not shared with the server calls.
+     *
+     * @return {@link ExecutorService} bounded to <code>livingdoc.executor.dispatch.threads</code> threads.
+     */
+    public static synchronized ExecutorService getDispatchExecutor() {
+
+        if (dispatchExecutor == null) {
+            dispatchExecutor = newBoundedExecutor("Dispatch",
+                    Integer.parseInt(PluginProperties.getValue("livingdoc.executor.dispatch.threads")));
+        }
+        return dispatchExecutor;
+    }
+
+    /**
+     * Returns the shared scheduler for deadlines and delayed tasks. It must only run short tasks.
+     *
+     * @return {@link ScheduledExecutorService} with a single thread.
+     */
+    public static synchronized ScheduledExecutorService getScheduler() {
+
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(newThreadFactory("Scheduler"));
+            executors.add(scheduler);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Creates a new executor with a fixed maximum of threads. Idle threads are released after one minute.
+     *
+     * @param name       Name of the pool, used for the thread names.
+     * @param maxThreads Maximum number of concurrent threads.
+     * @return {@link ExecutorService}
+     */
+    public static synchronized ExecutorService newBoundedExecutor(final String name, final int maxThreads) {
+
+        int threads = Math.max(1, maxThreads);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), newThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+
+        executors.add(executor);
+        return executor;
+    }
+
+    /**
+     * Shuts down the executor and forgets it.
+     *
+     * @param executor {@link ExecutorService} created by {@link #newBoundedExecutor(String, int)}
+     */
+    public static synchronized void release(final ExecutorService executor) {
+
+        executors.remove(executor);
+        executor.shutdownNow();
+
+        // A shared executor is created again by its next caller.
+        if (executor == remoteExecutor) {
+            remoteExecutor = null;
+        } else if (executor == dispatchExecutor) {
+            dispatchExecutor = null;
+        } else if (executor == scheduler) {
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Shuts down all the executors created by the plugin.
+     */
+    public static synchronized void shutdown() {
+
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+        }
+        LOG.info(executors.size() + " LivingDoc executors shut down");
+
+        executors.clear();
+        remoteExecutor = null;
+        dispatchExecutor = null;
+        scheduler = null;
+    }
+
+    private static ThreadFactory newThreadFactory(final String name) {
+
+        AtomicInteger counter = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, "LivingDoc " + name + " #" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package org.livingdoc.intellij.common;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent calls with the same key: the first caller runs the call and the others wait for its result.
+ * <br>
+ * A successful result is also shared with the callers arriving up to <code>retainMillis</code> after it finished.
+ * Failures are never shared with later callers, and a call interrupted in its own thread is run again by the
+ * waiting callers that were not interrupted.
+ *
+ * @param <K> Type of the keys. They must implement {@link Object#equals(Object)} and {@link Object#hashCode()}.
+ * @param <V> Type of the results.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final long retainMillis;
+
+
+    /**
+     * @param retainMillis Time during which a finished result is shared. Zero to share only in-flight calls.
+     */
+    public SingleFlight(final long retainMillis) {
+        this.retainMillis = retainMillis;
+    }
+
+    /**
+     * Runs the call, or waits for the in-flight call with the same key.
+     *
+     * @param key  Identifies the call and its arguments.
+     * @param call The call to run whether there is no in-flight call with the same key.
+     * @return The result of the call.
+     * @throws Exception Whatever the call throws, or {@link InterruptedException} whether the caller is interrupted
+     *                   while waiting.
+     */
+    public V execute(@NotNull final K key, @NotNull final Callable<V> call) throws Exception {
+
+        CompletableFuture<V> newFlight = new CompletableFuture<>();
+        CompletableFuture<V> flight = calls.putIfAbsent(key, newFlight);
+
+        if (flight == null) {
+            return lead(key, call, newFlight);
+        }
+
+        try {
+            return flight.get();
+
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+
+            if (isInterruption(cause) && !Thread.currentThread().isInterrupted()) {
+                // The leader was cancelled, not the call.
+                return execute(key, call);
+            }
+            throw cause instanceof Exception ? (Exception) cause : new ExecutionException(cause);
+        }
+    }
+
+    /**
+     * @return Number of keys in flight or retained.
+     */
+    public int size() {
+        return calls.size();
+    }
+
+    private V lead(final K key, final Callable<V> call, final CompletableFuture<V> flight) throws Exception {
+
+        V result;
+        try {
+            result = call.call();
+
+        } catch (Exception | Error e) {
+            calls.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+
+        flight.complete(result);
+
+        if (retainMillis > 0) {
+            PluginExecutors.getScheduler().schedule(() -> calls.remove(key, flight), retainMillis, TimeUnit.MILLISECONDS);
+        } else {
+            calls.remove(key, flight);
+        }
+        return result;
+    }
+
+    private static boolean isInterruption(final Throwable error) {
+
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,158 @@
+package org.livingdoc.intellij.connector;
+
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.common.PluginExecutors;
+import org.livingdoc.intellij.domain.*;
+import org.livingdoc.intellij.run.RemoteRunConfiguration;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asynchronous view of a {@link LivingDocConnector}.<br>
+ * Every call runs on the plugin executor and returns a {@link CompletableFuture}:
+ * <ul>
+ * <li>Cancelling the future interrupts the remote call whether it is still running.</li>
+ * <li>With {@link #withDeadline(long, TimeUnit)} each call fails with a {@link TimeoutException} when the deadline
+ * expires.</li>
+ * <li>A {@link LivingDocException} thrown by the connector completes the future exceptionally.</li>
+ * </ul>
+ *
+ * @see LivingDocConnector#async()
+ * @see PluginExecutors#getRemoteExecutor()
+ */
+public class AsyncLivingDocConnector {
+
+    private final LivingDocConnector connector;
+    private final ExecutorService executor;
+    private final long deadlineMillis;
+
+
+    public AsyncLivingDocConnector(@NotNull final LivingDocConnector connector, @NotNull final ExecutorService executor) {
+        this(connector, executor, 0L);
+    }
+
+    private AsyncLivingDocConnector(final LivingDocConnector connector, final ExecutorService executor,
+                                    final long deadlineMillis) {
+        this.connector = connector;
+        this.executor = executor;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Returns a view of this connector whose calls fail whether they don't finish in the indicated time.
+     * The deadline is applied to every call separately.
+     *
+     * @param timeout Maximum time for each call.
+     * @param unit    {@link TimeUnit} of the timeout.
+     * @return {@link AsyncLivingDocConnector}
+     */
+    public AsyncLivingDocConnector withDeadline(final long timeout, @NotNull final TimeUnit unit) {
+        return new AsyncLivingDocConnector(connector, executor, unit.toMillis(timeout));
+    }
+
+    /**
+     * @return The synchronous connector behind this view.
+     */
+    public LivingDocConnector getConnector() {
+        return connector;
+    }
+
+    public CompletableFuture<Boolean> testConnection() {
+        return submit(connector::testConnection);
+    }
+
+    public CompletableFuture<Collection<String>> getAllProjects() {
+        return submit(connector::getAllProjects);
+    }
+
+    public CompletableFuture<Collection<String>> getSystemUnderTestsForProject(@NotNull final String projectName) {
+        return submit(() -> connector.getSystemUnderTestsForProject(projectName));
+    }
+
+    public CompletableFuture<Collection<RepositoryNode>> getRepositoriesForSystemUnderTest(@NotNull final ModuleNode moduleNode) {
+        return submit(() -> connector.getRepositoriesForSystemUnderTest(moduleNode));
+    }
+
+    public CompletableFuture<List<DocumentEntry>> getSpecificationHierarchy(@NotNull final RepositoryNode repositoryNode,
+                                                                           @NotNull final ModuleNode moduleNode) {
+        return submit(() -> connector.getSpecificationHierarchy(repositoryNode, moduleNode));
+    }
+
+    /**
+     * The parent node must not be attached to a visible tree model until the future is completed.
+     *
+     * @see LivingDocConnector#buildfSpecificationHierarchy(RepositoryNode, ModuleNode, DefaultMutableTreeNode)
+     */
+    public CompletableFuture<Void> buildfSpecificationHierarchy(@NotNull final RepositoryNode repositoryNode,
+                                                                @NotNull final ModuleNode moduleNode,
+                                                                @NotNull final DefaultMutableTreeNode parentNode) {
+        return submit(() -> {
+            connector.buildfSpecificationHierarchy(repositoryNode, moduleNode, parentNode);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> tagDocumentAsImplemented(@NotNull final SpecificationNode specificationNode) {
+        return submit(() -> {
+            connector.tagDocumentAsImplemented(specificationNode);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> printSpecification(@NotNull final RemoteRunConfiguration runConfiguration,
+                                                      @NotNull final File specificationFile) {
+        return submit(() -> {
+            connector.printSpecification(runConfiguration, specificationFile);
+            return null;
+        });
+    }
+
+    public CompletableFuture<LivingDocExecution> getSpecificationExecution(@NotNull final RemoteRunConfiguration runConfiguration,
+                                                                           @NotNull final File reportFile,
+                                                                           @NotNull final File resultFile) {
+        return submit(() -> connector.getSpecificationExecution(runConfiguration, reportFile, resultFile));
+    }
+
+    private <T> CompletableFuture<T> submit(final Callable<T> call) {
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        Future<?> task = executor.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(call.call());
+
+            } catch (Throwable th) {
+                result.completeExceptionally(th);
+            }
+        });
+
+        // Cancellation and expired deadlines stop the remote call.
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                task.cancel(true);
+            }
+        });
+
+        if (deadlineMillis > 0) {
+            ScheduledFuture<?> deadline = PluginExecutors.getScheduler().schedule(
+                    () -> result.completeExceptionally(new TimeoutException("LivingDoc call exceeded " + deadlineMillis + " ms")),
+                    deadlineMillis, TimeUnit.MILLISECONDS);
+
+            result.whenComplete((value, error) -> deadline.cancel(false));
+        }
+        return result;
+    }
+}
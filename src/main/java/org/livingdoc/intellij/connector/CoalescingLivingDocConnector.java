@@ -0,0 +1,146 @@
+package org.livingdoc.intellij.connector;
+
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.common.SingleFlight;
+import org.livingdoc.intellij.domain.*;
+import org.livingdoc.intellij.run.RemoteRunConfiguration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Connector decorator that coalesces identical read calls (projects, systems under test, repositories and
+ * specification hierarchies).<br>
+ * Concurrent calls with equal arguments share one server call, as well as the calls arriving shortly after it
+ * finished. It avoids fetching the same data once per module when several modules use the same LivingDoc
+ * project and system under test.<br>
+ * Every caller receives its own copy of the mutable results; the {@link DocumentEntry}s are shared because they are
+ * never modified.
+ *
+ * @see SingleFlight
+ * @see LivingDocConnectorService
+ */
+public class CoalescingLivingDocConnector implements LivingDocConnector {
+
+    private final LivingDocConnector connector;
+    private final SingleFlight<List<Object>, Object> singleFlight;
+
+
+    /**
+     * @param connector    The decorated connector.
+     * @param retainMillis Time during which a finished result is shared with new callers.
+     */
+    public CoalescingLivingDocConnector(@NotNull final LivingDocConnector connector, final long retainMillis) {
+        this.connector = connector;
+        this.singleFlight = new SingleFlight<>(retainMillis);
+    }
+
+    @Override
+    public boolean testConnection() throws LivingDocException {
+        return connector.testConnection();
+    }
+
+    @Override
+    public Collection<String> getAllProjects() throws LivingDocException {
+        return new ArrayList<>(execute(connector::getAllProjects, "projects"));
+    }
+
+    @Override
+    public Collection<String> getSystemUnderTestsForProject(@NotNull final String projectName) throws LivingDocException {
+        return new ArrayList<>(execute(() -> connector.getSystemUnderTestsForProject(projectName), "systems", projectName));
+    }
+
+    @Override
+    public Collection<RepositoryNode> getRepositoriesForSystemUnderTest(@NotNull final ModuleNode moduleNode) throws LivingDocException {
+
+        Collection<RepositoryNode> repositoryNodes = execute(() -> connector.getRepositoriesForSystemUnderTest(moduleNode),
+                "repositories", moduleNode.getProject(), moduleNode.getSystemUnderTest());
+
+        List<RepositoryNode> copies = new ArrayList<>(repositoryNodes.size());
+        repositoryNodes.forEach(repositoryNode -> copies.add(copyOf(repositoryNode)));
+        return copies;
+    }
+
+    @Override
+    public List<DocumentEntry> getSpecificationHierarchy(@NotNull final RepositoryNode repositoryNode,
+                                                        @NotNull final ModuleNode moduleNode) throws LivingDocException {
+
+        return execute(() -> connector.getSpecificationHierarchy(repositoryNode, moduleNode),
+                "hierarchy", repositoryNode.getUid(), moduleNode.getProject(), moduleNode.getSystemUnderTest());
+    }
+
+    @Override
+    public void tagDocumentAsImplemented(@NotNull final SpecificationNode specificationNode) throws LivingDocException {
+        connector.tagDocumentAsImplemented(specificationNode);
+    }
+
+    @Override
+    public Map<SpecificationNode, LivingDocException> tagDocumentsAsImplemented(@NotNull final List<SpecificationNode> specificationNodes,
+                                                                                final int maxConcurrency,
+                                                                                @NotNull final TagListener listener) throws InterruptedException {
+        return connector.tagDocumentsAsImplemented(specificationNodes, maxConcurrency, listener);
+    }
+
+    @Override
+    public String getSpecificationRemoteUrl(@NotNull final SpecificationNode specificationNode, @NotNull final RepositoryNode repositoryNode) {
+        return connector.getSpecificationRemoteUrl(specificationNode, repositoryNode);
+    }
+
+    @Override
+    public String getLivingDocMainClass() {
+        return connector.getLivingDocMainClass();
+    }
+
+    @Override
+    public void printSpecification(@NotNull final RemoteRunConfiguration runConfiguration, final File specificationFile) throws LivingDocException {
+        connector.printSpecification(runConfiguration, specificationFile);
+    }
+
+    @Override
+    public LivingDocExecution getSpecificationExecution(final RemoteRunConfiguration runConfiguration, final File reportFile,
+                                                        final File resultFile) throws LivingDocException {
+        return connector.getSpecificationExecution(runConfiguration, reportFile, resultFile);
+    }
+
+    @Override
+    public void dispose() {
+        connector.dispose();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T execute(final Callable<T> call, final Object... key) throws LivingDocException {
+
+        try {
+            return (T) singleFlight.execute(Arrays.asList(key), call::call);
+
+        } catch (LivingDocException lde) {
+            throw lde;
+
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new LivingDocException(ie);
+
+        } catch (Exception e) {
+            throw new LivingDocException(e);
+        }
+    }
+
+    private static RepositoryNode copyOf(final RepositoryNode repositoryNode) {
+
+        RepositoryNode copy = new RepositoryNode(repositoryNode.getNodeName());
+        copy.setUid(repositoryNode.getUid());
+        copy.setName(repositoryNode.getName());
+        copy.setBaseTestUrl(repositoryNode.getBaseTestUrl());
+        copy.setBaseRepositoryUtl(repositoryNode.getBaseRepositoryUtl());
+        copy.setTypeClassName(repositoryNode.getTypeClassName());
+        copy.setTypeName(repositoryNode.getTypeName());
+        copy.setTypeDocumentUrlFormat(repositoryNode.getTypeDocumentUrlFormat());
+        copy.setParent(repositoryNode.getParent());
+        return copy;
+    }
+}
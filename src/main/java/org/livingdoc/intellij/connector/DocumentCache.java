@@ -0,0 +1,330 @@
+package org.livingdoc.intellij.connector;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.common.PluginProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk cache of the specification documents, stored under the IDE system directory.<br>
+ * The documents are keyed by server URL, repository UID, specification name and version (implemented or current).
+ * <ul>
+ * <li>A document downloaded less than <i>ttl</i> ago is served from disk without calling the server.</li>
+ * <li>An expired document is downloaded again and compared by content hash: whether it has not changed only its
+ * validation time is renewed. The repositories have no conditional download, so this saves the disk write, not
+ * the transfer.</li>
+ * <li>The least recently used documents are evicted when the cache exceeds
+ * <code>livingdoc.cache.documents.max.mb</code> (<b>config.properties</b>).</li>
+ * </ul>
+ * The instance is shared by all the projects.
+ */
+public final class DocumentCache {
+
+    private static final Logger LOG = Logger.getInstance(DocumentCache.class);
+
+    private static final String EXTENSION = ".html";
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private static DocumentCache instance;
+
+    private final File directory;
+    private final long maxBytes;
+
+    /**
+     * File name and size of the cached documents, in access order.
+     */
+    private Map<String, Long> entries;
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+
+    DocumentCache(@NotNull final File directory, final long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return The cache of the IDE system directory.
+     */
+    public static synchronized DocumentCache getInstance() {
+
+        if (instance == null) {
+            instance = new DocumentCache(new File(PathManager.getSystemPath(), PluginProperties.getValue("livingdoc.dir.cache.documents")),
+                    Long.parseLong(PluginProperties.getValue("livingdoc.cache.documents.max.mb")) * BYTES_PER_MB);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the content of a document, downloading it only whether it is not cached or its validation has expired.
+     *
+     * @param serverUrl         URL of the LivingDoc server.
+     * @param repositoryUid     UID of the repository.
+     * @param specificationName Name of the specification.
+     * @param currentVersion    True for the current (working) version, false for the implemented one.
+     * @param ttlMillis         Time during which a cached document is served without asking the server.
+     *                          Zero disables the cache.
+     * @param loader            Downloads the document. It can return null whether the document doesn't exist.
+     * @return The document content, or null whether the loader returned null.
+     * @throws Exception Whatever the loader throws.
+     */
+    @Nullable
+    public byte[] getDocument(final String serverUrl, final String repositoryUid, final String specificationName,
+                              final boolean currentVersion, final long ttlMillis,
+                              @NotNull final DocumentLoader loader) throws Exception {
+
+        if (ttlMillis <= 0) {
+            return loader.load();
+        }
+
+        File file = getFile(serverUrl, repositoryUid, specificationName, currentVersion);
+        boolean cached = touch(file.getName());
+
+        if (cached && System.currentTimeMillis() - file.lastModified() < ttlMillis) {
+            byte[] content = read(file);
+            if (content != null) {
+                hits.incrementAndGet();
+                return content;
+            }
+        }
+
+        byte[] content = loader.load();
+        if (content == null) {
+            return null;
+        }
+
+        if (cached && Arrays.equals(DigestUtils.sha1(content), sha1(file))) {
+            revalidations.incrementAndGet();
+            if (!file.setLastModified(System.currentTimeMillis())) {
+                LOG.warn("The document " + file.getName() + " has not been revalidated.");
+            }
+        } else {
+            misses.incrementAndGet();
+            write(file, content);
+        }
+
+        LOG.debug(getStatistics().toString());
+        return content;
+    }
+
+    /**
+     * Removes both versions of a specification, for example after tagging it as implemented.
+     */
+    public void invalidate(final String serverUrl, final String repositoryUid, final String specificationName) {
+
+        for (boolean currentVersion : new boolean[]{true, false}) {
+            remove(getFile(serverUrl, repositoryUid, specificationName, currentVersion).getName());
+        }
+    }
+
+    /**
+     * @return The size in bytes of the cached document, or -1 whether it is not cached. The document is not read.
+     */
+    public long getCachedSize(final String serverUrl, final String repositoryUid, final String specificationName,
+                              final boolean currentVersion) {
+
+        File file = getFile(serverUrl, repositoryUid, specificationName, currentVersion);
+        return file.isFile() ? file.length() : -1L;
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(hits.get(), misses.get(), revalidations.get(), evictions.get(), getTotalBytes());
+    }
+
+    private File getFile(final String serverUrl, final String repositoryUid, final String specificationName,
+                         final boolean currentVersion) {
+
+        String key = String.join("\n", serverUrl, repositoryUid, specificationName, String.valueOf(currentVersion));
+        return new File(directory, DigestUtils.sha1Hex(key) + EXTENSION);
+    }
+
+    /**
+     * Marks the entry as the most recently used.
+     *
+     * @return False whether the document is not in the cache.
+     */
+    private synchronized boolean touch(final String name) {
+        return getEntries().get(name) != null;
+    }
+
+    private synchronized void remove(final String name) {
+
+        Long size = getEntries().remove(name);
+        if (size != null) {
+            totalBytes -= size;
+            delete(new File(directory, name));
+        }
+    }
+
+    private synchronized long getTotalBytes() {
+        return entries == null ? 0L : totalBytes;
+    }
+
+    private void write(final File file, final byte[] content) throws IOException {
+
+        Files.createDirectories(directory.toPath());
+        File tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+
+        try {
+            Files.write(tempFile.toPath(), content);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        } finally {
+            if (tempFile.exists()) {
+                delete(tempFile);
+            }
+        }
+
+        synchronized (this) {
+            Long previousSize = getEntries().put(file.getName(), (long) content.length);
+            totalBytes += content.length - (previousSize == null ? 0L : previousSize);
+            evict();
+        }
+    }
+
+    /**
+     * Removes the least recently used documents, always keeping the last one.
+     */
+    private void evict() {
+
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+
+        while (totalBytes > maxBytes && entries.size() > 1 && iterator.hasNext()) {
+
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            delete(new File(directory, eldest.getKey()));
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * The index is built from the directory the first time, in order of last validation.
+     */
+    private Map<String, Long> getEntries() {
+
+        if (entries == null) {
+            entries = new LinkedHashMap<>(16, 0.75f, true);
+            totalBytes = 0L;
+
+            File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+            if (files != null) {
+                Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+                for (File file : files) {
+                    entries.put(file.getName(), file.length());
+                    totalBytes += file.length();
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] read(final File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+
+        } catch (IOException ioe) {
+            LOG.warn("The document " + file.getName() + " can't be read from the cache", ioe);
+            return null;
+        }
+    }
+
+    private static byte[] sha1(final File file) {
+        byte[] content = read(file);
+        return content == null ? null : DigestUtils.sha1(content);
+    }
+
+    private static void delete(final File file) {
+        if (file.exists() && !file.delete()) {
+            LOG.warn("The file " + file.getName() + " has not been deleted.");
+        }
+    }
+
+    /**
+     * Downloads a document from the server.
+     */
+    @FunctionalInterface
+    public interface DocumentLoader {
+        byte[] load() throws Exception;
+    }
+
+    /**
+     * Counters of the cache since the IDE started.
+     */
+    public static class Statistics {
+
+        private final long hits;
+        private final long misses;
+        private final long revalidations;
+        private final long evictions;
+        private final long sizeBytes;
+
+        Statistics(final long hits, final long misses, final long revalidations, final long evictions, final long sizeBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.revalidations = revalidations;
+            this.evictions = evictions;
+            this.sizeBytes = sizeBytes;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("hits", hits)
+                    .append("misses", misses)
+                    .append("revalidations", revalidations)
+                    .append("evictions", evictions)
+                    .append("sizeBytes", sizeBytes)
+                    .toString();
+        }
+
+        /**
+         * @return Documents served from disk without calling the server.
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return Documents downloaded and stored because they were not cached or they had changed.
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return Expired documents downloaded again that had not changed.
+         */
+        public long getRevalidations() {
+            return revalidations;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+    }
+}
@@ -1,20 +1,35 @@
 package org.livingdoc.intellij.connector;
 
+import com.intellij.openapi.Disposable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.livingdoc.intellij.common.LivingDocVersion;
+import org.livingdoc.intellij.common.PluginExecutors;
 import org.livingdoc.intellij.connector.legacy.LegacyLivingDocConnectorImpl;
 import org.livingdoc.intellij.connector.livingdoc.LivingDocConnectorImpl;
 import org.livingdoc.intellij.domain.*;
+import org.livingdoc.intellij.gui.toolwindows.RepositoryViewUtils;
 import org.livingdoc.intellij.run.RemoteRunConfiguration;
 
 import javax.swing.tree.DefaultMutableTreeNode;
 import java.io.File;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Layer for the connection with the LivingDoc core.
+ * Layer for the connection with the LivingDoc core.<br>
+ * The actions should use the shared instance of {@link LivingDocConnectorService} instead of creating new ones.
  */
-public interface LivingDocConnector {
+public interface LivingDocConnector extends Disposable {
 
     /**
      * Creates a new LivingDoc connector instance.
@@ -75,6 +90,17 @@ public interface LivingDocConnector {
      */
     Collection<RepositoryNode> getRepositoriesForSystemUnderTest(@NotNull final ModuleNode moduleNode) throws LivingDocException;
 
+    /**
+     * Retrieves the whole specification hierarchy for a system under test.<br>
+     * Only the executable documents or documents with children are returned.
+     *
+     * @param repositoryNode {@link RepositoryNode} Represents a LivingDoc repository.
+     * @param moduleNode     {@link ModuleNode} Represents a project module for IntelliJ.
+     * @return A {@link List} of the top level {@link DocumentEntry}s.
+     * @throws LivingDocException
+     */
+    List<DocumentEntry> getSpecificationHierarchy(@NotNull final RepositoryNode repositoryNode, @NotNull final ModuleNode moduleNode) throws LivingDocException;
+
     /**
      * Retrieves the whole specification hierarchy for a system under test and builds the specification tree.
      *
@@ -82,8 +108,11 @@ public interface LivingDocConnector {
      * @param moduleNode     {@link ModuleNode} Represents a project module for IntelliJ.
      * @param parentNode     {@link DefaultMutableTreeNode} Represents the root node for the specification tree.
      * @throws LivingDocException
+     * @see RepositoryViewUtils#paintDocumentEntries(List, DefaultMutableTreeNode)
      */
-    void buildfSpecificationHierarchy(@NotNull final RepositoryNode repositoryNode, @NotNull final ModuleNode moduleNode, @NotNull final DefaultMutableTreeNode parentNode) throws LivingDocException;
+    default void buildfSpecificationHierarchy(@NotNull final RepositoryNode repositoryNode, @NotNull final ModuleNode moduleNode, @NotNull final DefaultMutableTreeNode parentNode) throws LivingDocException {
+        RepositoryViewUtils.paintDocumentEntries(getSpecificationHierarchy(repositoryNode, moduleNode), parentNode);
+    }
 
     /**
      * Sets the specification as implemented.
@@ -92,6 +121,64 @@ public interface LivingDocConnector {
      */
     void tagDocumentAsImplemented(@NotNull final SpecificationNode specificationNode) throws LivingDocException;
 
+    /**
+     * Sets several specifications as implemented, with at most <code>maxConcurrency</code> calls in flight.<br>
+     * The listener is notified on the calling thread as soon as each call finishes. Whether the listener throws an
+     * exception (e.g. on cancellation), the pending calls are discarded and the running ones are interrupted.
+     *
+     * @param specificationNodes The specifications.
+     * @param maxConcurrency     Maximum number of concurrent calls.
+     * @param listener           {@link TagListener}
+     * @return The error of every specification that has not been tagged, in the order the calls finished.
+     * @throws InterruptedException Whether the calling thread is interrupted while waiting.
+     */
+    default Map<SpecificationNode, LivingDocException> tagDocumentsAsImplemented(@NotNull final List<SpecificationNode> specificationNodes,
+                                                                                 final int maxConcurrency,
+                                                                                 @NotNull final TagListener listener) throws InterruptedException {
+
+        Map<SpecificationNode, LivingDocException> errors = new LinkedHashMap<>();
+        ExecutorService executor = PluginExecutors.newBoundedExecutor("Tag", maxConcurrency);
+
+        try {
+            CompletionService<SpecificationNode> completionService = new ExecutorCompletionService<>(executor);
+            Map<Future<SpecificationNode>, SpecificationNode> calls = new HashMap<>();
+
+            for (SpecificationNode specificationNode : specificationNodes) {
+                calls.put(completionService.submit(() -> {
+                    tagDocumentAsImplemented(specificationNode);
+                    return specificationNode;
+                }), specificationNode);
+            }
+
+            for (int finished = 0; finished < calls.size(); ) {
+
+                listener.checkCanceled();
+                Future<SpecificationNode> call = completionService.poll(100L, TimeUnit.MILLISECONDS);
+                if (call == null) {
+                    continue;
+                }
+                finished++;
+
+                SpecificationNode specificationNode = calls.get(call);
+                LivingDocException error = null;
+                try {
+                    call.get();
+
+                } catch (ExecutionException ee) {
+                    error = ee.getCause() instanceof LivingDocException
+                            ? (LivingDocException) ee.getCause()
+                            : new LivingDocException(ee.getCause());
+                    errors.put(specificationNode, error);
+                }
+                listener.tagged(specificationNode, error);
+            }
+            return errors;
+
+        } finally {
+            PluginExecutors.release(executor);
+        }
+    }
+
     /**
      * Returns remote URL for the specification.
      *
@@ -117,12 +204,51 @@ public interface LivingDocConnector {
     void printSpecification(@NotNull final RemoteRunConfiguration runConfiguration, File specificationFile) throws LivingDocException;
 
     /**
-     * Gets the specification execution from the report file.
+     * Gets the specification execution from the report file. The results are copied to the result file, not kept
+     * in the {@link LivingDocExecution}.
      *
      * @param runConfiguration {@link RemoteRunConfiguration}.
      * @param reportFile       {@link File} LivingDoc report file.
+     * @param resultFile       {@link File} To copy the results of the execution to.
      * @return The result of the execution in a {@link LivingDocExecution} object.
      * @throws LivingDocException
      */
-    LivingDocExecution getSpecificationExecution(RemoteRunConfiguration runConfiguration, File reportFile) throws LivingDocException;
+    LivingDocExecution getSpecificationExecution(RemoteRunConfiguration runConfiguration, File reportFile, File resultFile) throws LivingDocException;
+
+    /**
+     * Returns the asynchronous view of this connector. The calls run on the plugin executor.
+     *
+     * @return {@link AsyncLivingDocConnector}
+     * @see PluginExecutors#getRemoteExecutor()
+     */
+    default AsyncLivingDocConnector async() {
+        return new AsyncLivingDocConnector(this, PluginExecutors.getRemoteExecutor());
+    }
+
+    /**
+     * Receives the progress of {@link #tagDocumentsAsImplemented(List, int, TagListener)}.
+     */
+    interface TagListener {
+
+        /**
+         * @param specificationNode The specification whose call has finished.
+         * @param error             The error of the call, or null whether the specification has been tagged.
+         */
+        void tagged(@NotNull SpecificationNode specificationNode, @Nullable LivingDocException error);
+
+        /**
+         * Called periodically while waiting; it can throw an exception to stop the batch.
+         */
+        default void checkCanceled() {
+            // Never cancelled by default.
+        }
+    }
+
+    /**
+     * Releases the resources held by the connector.
+     */
+    @Override
+    default void dispose() {
+        // Nothing to release by default.
+    }
 }
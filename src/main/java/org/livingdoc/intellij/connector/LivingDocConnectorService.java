@@ -0,0 +1,87 @@
+package org.livingdoc.intellij.connector;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.common.PluginProperties;
+import org.livingdoc.intellij.domain.ProjectSettings;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service implementation for project service extension defined in <b>plugin.xml</b> with
+ * <code>id="LivingDoc.Project.Service.Connector"</code>
+ * <br/><br/>
+ * Keeps one long-lived {@link LivingDocConnector} per {@link ProjectSettings} fingerprint (server URL, user, password
+ * and LivingDoc version). The connector is only rebuilt when the fingerprint changes, so the HTTP client, its
+ * keep-alive connections and the TLS sessions are reused between the actions of the plugin.<br>
+ * Identical concurrent read calls are coalesced by {@link CoalescingLivingDocConnector}.<br>
+ * The connector is released when the project is disposed.
+ *
+ * @see LivingDocConnector#newInstance(ProjectSettings)
+ */
+public class LivingDocConnectorService implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(LivingDocConnectorService.class);
+
+    private final Project project;
+
+    private List<Object> fingerprint;
+    private LivingDocConnector connector;
+
+
+    public LivingDocConnectorService(@NotNull final Project project) {
+        this.project = project;
+    }
+
+    @NotNull
+    public static LivingDocConnectorService getInstance(@NotNull final Project project) {
+        return ServiceManager.getService(project, LivingDocConnectorService.class);
+    }
+
+    /**
+     * Returns the shared connector for the current project settings.<br>
+     * A new connector is created whether the settings have changed since the last call.
+     *
+     * @return LivingDocConnector implementation.
+     */
+    public synchronized LivingDocConnector getConnector() {
+
+        ProjectSettings projectSettings = ProjectSettings.getInstance(project);
+        List<Object> currentFingerprint = getFingerprint(projectSettings);
+
+        if (connector == null || !currentFingerprint.equals(fingerprint)) {
+
+            releaseConnector();
+
+            connector = new CoalescingLivingDocConnector(LivingDocConnector.newInstance(projectSettings),
+                    Long.parseLong(PluginProperties.getValue("livingdoc.connector.coalesce.millis")));
+            fingerprint = currentFingerprint;
+
+            LOG.info("LivingDoc connector created for " + projectSettings.getUrlServer());
+        }
+        return connector;
+    }
+
+    @Override
+    public synchronized void dispose() {
+        releaseConnector();
+    }
+
+    private void releaseConnector() {
+
+        if (connector != null) {
+            connector.dispose();
+        }
+        connector = null;
+        fingerprint = null;
+    }
+
+    private static List<Object> getFingerprint(@NotNull final ProjectSettings projectSettings) {
+        return Arrays.asList(projectSettings.getUrlServer(), projectSettings.getUser(), projectSettings.getPassword(),
+                projectSettings.getLivingDocVersion());
+    }
+}
@@ -0,0 +1,163 @@
+package org.livingdoc.intellij.connector;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.domain.LivingDocExecution;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the XML report of a LivingDoc execution in a single streaming pass:
+ * <ul>
+ * <li>The statistics and the global exception of the first document are read into a {@link LivingDocExecution}.</li>
+ * <li>The results (the executed HTML document) are copied to the result file in chunks, so a huge report never
+ * becomes a single string in the IDE.</li>
+ * </ul>
+ */
+public final class ReportReader {
+
+    private static final String DOCUMENT = "document";
+    private static final String SUCCESS = "success";
+    private static final String FAILURE = "failure";
+    private static final String ERROR = "error";
+    private static final String IGNORED = "ignored";
+    private static final String RESULTS = "results";
+    private static final String GLOBAL_EXCEPTION = "global-exception";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = newXmlInputFactory();
+
+    private ReportReader() {
+        // Utility class.
+    }
+
+    /**
+     * Reads the report and copies its results to the result file, replacing its content.
+     *
+     * @param reportFile {@link Path} LivingDoc report file.
+     * @param resultFile {@link Path} File to copy the results to.
+     * @return The execution, without results: they are in the result file.
+     * @throws IOException        If an I/O error occurred.
+     * @throws XMLStreamException If the report is not well-formed.
+     */
+    public static LivingDocExecution read(@NotNull final Path reportFile, @NotNull final Path resultFile)
+            throws IOException, XMLStreamException {
+
+        LivingDocExecution execution = new LivingDocExecution();
+
+        try (InputStream input = Files.newInputStream(reportFile);
+             Writer results = Channels.newWriter(FileChannel.open(resultFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE)) {
+
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(input);
+            try {
+                readFirstDocument(reader, execution, results);
+            } finally {
+                reader.close();
+            }
+        }
+
+        execution.setHasException(StringUtils.isNotEmpty(execution.getExecutionErrorId()));
+        execution.setHasFailed(execution.getErrors() + execution.getFailures() > 0);
+        return execution;
+    }
+
+    private static void readFirstDocument(final XMLStreamReader reader, final LivingDocExecution execution,
+                                          final Writer results) throws XMLStreamException, IOException {
+
+        int documents = 0;
+
+        while (reader.hasNext()) {
+
+            if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case DOCUMENT:
+                    if (++documents > 1) {
+                        return;
+                    }
+                    break;
+                case SUCCESS:
+                    execution.setSuccess(readInt(reader));
+                    break;
+                case FAILURE:
+                    execution.setFailures(readInt(reader));
+                    break;
+                case ERROR:
+                    execution.setErrors(readInt(reader));
+                    break;
+                case IGNORED:
+                    execution.setIgnored(readInt(reader));
+                    break;
+                case GLOBAL_EXCEPTION:
+                    execution.setExecutionErrorId(reader.getElementText());
+                    break;
+                case RESULTS:
+                    copyText(reader, results);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static int readInt(final XMLStreamReader reader) throws XMLStreamException {
+
+        String text = reader.getElementText().trim();
+        return text.isEmpty() ? 0 : Integer.parseInt(text);
+    }
+
+    /**
+     * Copies the text of the current element, up to its end tag, without building it as a string.
+     */
+    private static void copyText(final XMLStreamReader reader, final Writer writer) throws XMLStreamException, IOException {
+
+        char[] buffer = new char[BUFFER_SIZE];
+        int depth = 1;
+
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    int read;
+                    for (int start = 0; (read = reader.getTextCharacters(start, buffer, 0, buffer.length)) > 0; start += read) {
+                        writer.write(buffer, 0, read);
+                    }
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // The text is delivered in chunks, and the report never loads external content.
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+}
@@ -2,7 +2,6 @@ package org.livingdoc.intellij.connector.legacy;
 
 import com.intellij.openapi.diagnostic.Logger;
 import info.novatec.testit.livingdoc.document.Document;
-import info.novatec.testit.livingdoc.report.XmlReport;
 import info.novatec.testit.livingdoc.repository.DocumentRepository;
 import info.novatec.testit.livingdoc.runner.Main;
 import info.novatec.testit.livingdoc.server.LivingDocServerException;
@@ -10,24 +9,30 @@ import info.novatec.testit.livingdoc.server.domain.*;
 import info.novatec.testit.livingdoc.server.rest.LivingDocRestClient;
 import org.jetbrains.annotations.NotNull;
 import org.livingdoc.intellij.common.I18nSupport;
+import org.livingdoc.intellij.connector.DocumentCache;
 import org.livingdoc.intellij.connector.LivingDocConnector;
+import org.livingdoc.intellij.connector.ReportReader;
 import org.livingdoc.intellij.domain.*;
 import org.livingdoc.intellij.gui.toolwindows.RepositoryViewUtils;
 import org.livingdoc.intellij.run.RemoteRunConfiguration;
-import org.xml.sax.SAXException;
 
-import javax.swing.tree.DefaultMutableTreeNode;
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * {@link LivingDocConnector} implementation for the legacy LivingDoc version.
+ * {@link LivingDocConnector} implementation for the legacy LivingDoc version.<br>
+ * The REST client and the document repositories are created once and reused for the whole connector life.
  */
 public class LegacyLivingDocConnectorImpl implements LivingDocConnector {
 
@@ -35,7 +40,7 @@ public class LegacyLivingDocConnectorImpl implements LivingDocConnector {
 
     private final ProjectSettings projectSettings;
     private final LivingDocRestClient livingDocRestClient;
-
+    private final Map<String, DocumentRepository> documentRepositories = new ConcurrentHashMap<>();
 
     public LegacyLivingDocConnectorImpl(ProjectSettings projectSettings) {
         this.projectSettings = projectSettings;
@@ -107,7 +112,7 @@ public class LegacyLivingDocConnectorImpl implements LivingDocConnector {
     }
 
     @Override
-    public void buildfSpecificationHierarchy(@NotNull final RepositoryNode repositoryNode, @NotNull final ModuleNode moduleNode, @NotNull final DefaultMutableTreeNode parentNode) throws LivingDocException {
+    public List<DocumentEntry> getSpecificationHierarchy(@NotNull final RepositoryNode repositoryNode, @NotNull final ModuleNode moduleNode) throws LivingDocException {
 
         Repository repository = convertToRepository(repositoryNode);
         SystemUnderTest systemUnderTest = getSystemUnderTest(moduleNode);
@@ -115,7 +120,7 @@ public class LegacyLivingDocConnectorImpl implements LivingDocConnector {
         try {
             DocumentNode documentNode = livingDocRestClient.getSpecificationHierarchy(repository, systemUnderTest, null);
 
-            paintDocumentNode(documentNode.getChildren(), parentNode);
+            return convertToDocumentEntries(documentNode.getChildren());
 
         } catch (LivingDocServerException ldse) {
             throw new LivingDocException(ldse);
@@ -126,14 +131,14 @@ public class LegacyLivingDocConnectorImpl implements LivingDocConnector {
     public void tagDocumentAsImplemented(@NotNull final SpecificationNode specificationNode) throws LivingDocException {
 
         RepositoryNode repositoryNode = RepositoryViewUtils.getRepositoryNode(specificationNode);
-        Repository repository = convertToRepository(repositoryNode);
-
-        DocumentRepository documentRepository = repository.asDocumentRepository(
-                getClass().getClassLoader(), projectSettings.getUser(), projectSettings.getPassword());
+        DocumentRepository documentRepository = getDocumentRepository(convertToRepository(repositoryNode));
 
         try {
             documentRepository.setDocumentAsImplemented(specificationNode.getNodeName());
 
+            DocumentCache.getInstance().invalidate(projectSettings.getUrlServer(), repositoryNode.getUid(),
+                    specificationNode.getNodeName());
+
         } catch (Exception e) {
             throw new LivingDocException(e);
         }
@@ -157,112 +162,108 @@ public class LegacyLivingDocConnectorImpl implements LivingDocConnector {
     @Override
     public void printSpecification(@NotNull final RemoteRunConfiguration runConfiguration, @NotNull final File specificationFile) throws LivingDocException {
 
-        ClassLoader classLoader = getClass().getClassLoader();
-
         Repository repository = convertToRepository(runConfiguration);
-
-        DocumentRepository documentRepository = repository.asDocumentRepository(
-                classLoader, projectSettings.getUser(), projectSettings.getPassword());
+        DocumentRepository documentRepository = getDocumentRepository(repository);
 
         String location = runConfiguration.getSpecificationName() + (runConfiguration.isCurrentVersion() ? "?implemented=false" : "");
+        // The current version is the working copy edited in Confluence: it is always downloaded.
+        long ttl = runConfiguration.isCurrentVersion() ? 0L : TimeUnit.MINUTES.toMillis(projectSettings.getDocumentCacheTtlMinutes());
 
-        try (PrintWriter printWriter = new PrintWriter(specificationFile, String.valueOf(StandardCharsets.UTF_8))) {
-
-            Document document = documentRepository.loadDocument(location);
+        try {
+            byte[] content = DocumentCache.getInstance().getDocument(projectSettings.getUrlServer(), repository.getUid(),
+                    runConfiguration.getSpecificationName(), runConfiguration.isCurrentVersion(), ttl,
+                    () -> loadDocument(documentRepository, location));
 
-            if (document != null) {
-                document.print(printWriter);
-            } else {
+            if (content == null) {
                 LOG.error(I18nSupport.getValue("run.execution.error.document.null"));
+                content = new byte[0];
             }
+            Files.write(specificationFile.toPath(), content);
+
         } catch (Exception e) {
             throw new LivingDocException(e);
         }
     }
 
     @Override
-    public LivingDocExecution getSpecificationExecution(@NotNull final RemoteRunConfiguration runConfiguration, @NotNull final File reportFile) throws LivingDocException {
+    public LivingDocExecution getSpecificationExecution(@NotNull final RemoteRunConfiguration runConfiguration, @NotNull final File reportFile,
+                                                        @NotNull final File resultFile) throws LivingDocException {
 
-        XmlReport xmlReport;
         try {
-            xmlReport = XmlReport.parse(reportFile);
+            return ReportReader.read(reportFile.toPath(), resultFile.toPath());
 
-        } catch (SAXException | IOException e) {
+        } catch (XMLStreamException | IOException e) {
             throw new LivingDocException(e);
         }
+    }
 
-        Specification specification = Specification.newInstance(runConfiguration.getSpecificationName());
-        Repository repository = convertToRepository(runConfiguration);
-        specification.setRepository(repository);
-
-        Execution execution = Execution.newInstance(specification, null, xmlReport);
-        execution.setResults(xmlReport.getResults(0));  // TODO review index 0 for getResults()
-
-        specification.addExecution(execution);
-
-        return convertToLivingDocExecution(execution);
+    @Override
+    public void dispose() {
+        documentRepositories.clear();
     }
 
     /**
-     * This recursive method adds a node into the repository tree.<br>
-     * Only the executable nodes or nodes with children will be painted.
+     * Returns the document repository for the repository. It is created only once because
+     * {@link Repository#asDocumentRepository(ClassLoader, String, String)} uses reflection and authentication.<br>
+     * The repositories of the run configurations have neither base repository URL nor credentials, so they are
+     * kept apart from the repositories of the tree with the same UID. The credentials are the ones of the connector.
      *
-     * @param children   {@link java.util.List}
-     * @param parentNode {@link DefaultMutableTreeNode} Parent node of children nodes indicated in the first parameter.
-     * @see DocumentNode
+     * @param repository {@link Repository}
+     * @return {@link DocumentRepository}
      */
-    private void paintDocumentNode(List<DocumentNode> children, @NotNull final DefaultMutableTreeNode parentNode) {
-
-        children.stream().filter(child -> child.isExecutable() || (!child.isExecutable() && child.hasChildren())).forEach(child -> {
+    private DocumentRepository getDocumentRepository(@NotNull final Repository repository) {
 
-            SpecificationNode ldNode = convertToSpecificationNode(child, (Node) parentNode.getUserObject());
-            DefaultMutableTreeNode childNode = new DefaultMutableTreeNode(ldNode);
-            parentNode.add(childNode);
+        String key = String.join("\n", repository.getUid(), String.valueOf(repository.getType().getClassName()),
+                String.valueOf(repository.getBaseTestUrl()), String.valueOf(repository.getBaseRepositoryUrl()),
+                String.valueOf(repository.getUsername()), String.valueOf(repository.getPassword()));
 
-            if (child.hasChildren()) {
-                paintDocumentNode(child.getChildren(), childNode);
-            }
-        });
-        sortChildren(parentNode);
+        return documentRepositories.computeIfAbsent(key, repositoryKey -> repository.asDocumentRepository(
+                getClass().getClassLoader(), projectSettings.getUser(), projectSettings.getPassword()));
     }
 
-    private void sortChildren(@NotNull final DefaultMutableTreeNode node) {
-
-        List<DefaultMutableTreeNode> childrenList = Collections.list(node.children());
+    /**
+     * Downloads and renders a document.
+     *
+     * @return The document content, or null whether the document doesn't exist.
+     */
+    private static byte[] loadDocument(final DocumentRepository documentRepository, final String location) throws Exception {
 
-        childrenList.sort((o1, o2) ->
-                ((Node) o1.getUserObject()).getNodeName().compareToIgnoreCase(((Node) o2.getUserObject()).getNodeName()));
+        Document document = documentRepository.loadDocument(location);
+        if (document == null) {
+            return null;
+        }
 
-        node.removeAllChildren();
-        childrenList.forEach(node::add);
+        StringWriter writer = new StringWriter();
+        try (PrintWriter printWriter = new PrintWriter(writer)) {
+            document.print(printWriter);
+        }
+        return writer.toString().getBytes(StandardCharsets.UTF_8);
     }
 
-    private LivingDocExecution convertToLivingDocExecution(Execution execution) {
-        LivingDocExecution livingDocExecution = new LivingDocExecution();
-        livingDocExecution.setExecutionErrorId(execution.getExecutionErrorId());
-        livingDocExecution.setResults(execution.getResults());
-        livingDocExecution.setErrors(execution.getErrors());
-        livingDocExecution.setFailures(execution.getFailures());
-        livingDocExecution.setSuccess(execution.getSuccess());
-        livingDocExecution.setIgnored(execution.getIgnored());
-        livingDocExecution.setHasException(execution.hasException());
-        livingDocExecution.setHasFailed(execution.hasFailed());
-        return livingDocExecution;
-    }
+    /**
+     * This recursive method converts the server hierarchy into {@link DocumentEntry}s.<br>
+     * Only the executable nodes or nodes with children will be converted.
+     *
+     * @param children {@link java.util.List}
+     * @return A {@link List} of {@link DocumentEntry}s in the server order.
+     * @see DocumentNode
+     */
+    private List<DocumentEntry> convertToDocumentEntries(@NotNull final List<DocumentNode> children) {
 
-    private SpecificationNode convertToSpecificationNode(final DocumentNode childNode, final Node userObject) {
+        List<DocumentEntry> documentEntries = new ArrayList<>(children.size());
 
-        SpecificationNode specificationNode = new SpecificationNode(childNode.getTitle(), userObject);
-        specificationNode.setExecutable(childNode.isExecutable());
-        specificationNode.setCanBeImplemented(childNode.isCanBeImplemented() && childNode.isExecutable());
-        specificationNode.setIcon(RepositoryViewUtils.getNodeIcon(specificationNode));
+        children.stream().filter(child -> child.isExecutable() || (!child.isExecutable() && child.hasChildren())).forEach(child -> {
 
-        if(specificationNode.isCanBeImplemented()) {
-            specificationNode.setUsingCurrentVersion(true);
-        }
-        return specificationNode;
-    }
+            DocumentEntry documentEntry = new DocumentEntry(child.getTitle(), child.isExecutable(),
+                    child.isCanBeImplemented() && child.isExecutable());
 
+            if (child.hasChildren()) {
+                documentEntry.setChildren(convertToDocumentEntries(child.getChildren()));
+            }
+            documentEntries.add(documentEntry);
+        });
+        return documentEntries;
+    }
 
     private Repository convertToRepository(@NotNull final RemoteRunConfiguration runConfiguration) {
 
@@ -5,10 +5,10 @@ import org.livingdoc.intellij.connector.LivingDocConnector;
 import org.livingdoc.intellij.domain.*;
 import org.livingdoc.intellij.run.RemoteRunConfiguration;
 
-import javax.swing.tree.DefaultMutableTreeNode;
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * {@link LivingDocConnector} implementation for the new LivingDoc version.
@@ -36,12 +36,12 @@ public class LivingDocConnectorImpl implements LivingDocConnector {
     }
 
     @Override
-    public void buildfSpecificationHierarchy(@NotNull RepositoryNode repositoryNode, @NotNull final ModuleNode moduleNode, @NotNull final DefaultMutableTreeNode parentNode) throws LivingDocException {
-        // not implemented yet
+    public List<DocumentEntry> getSpecificationHierarchy(@NotNull final RepositoryNode repositoryNode, @NotNull final ModuleNode moduleNode) throws LivingDocException {
+        return Collections.emptyList();
     }
 
     @Override
-    public void tagDocumentAsImplemented(@NotNull final SpecificationNode specificationNode) {
+    public void tagDocumentAsImplemented(@NotNull final SpecificationNode specificationNode) throws LivingDocException {
         // not implemented yet
     }
 
@@ -61,7 +61,8 @@ public class LivingDocConnectorImpl implements LivingDocConnector {
     }
 
     @Override
-    public LivingDocExecution getSpecificationExecution(@NotNull final RemoteRunConfiguration runConfiguration, @NotNull final File reportFile) {
+    public LivingDocExecution getSpecificationExecution(@NotNull final RemoteRunConfiguration runConfiguration, @NotNull final File reportFile,
+                                                        @NotNull final File resultFile) {
         return null;
     }
 }
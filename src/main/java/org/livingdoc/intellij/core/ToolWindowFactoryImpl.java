@@ -6,6 +6,7 @@ import com.intellij.openapi.wm.ToolWindowFactory;
 import com.intellij.ui.content.Content;
 import com.intellij.ui.content.ContentFactory;
 import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.common.I18nSupport;
 import org.livingdoc.intellij.common.Icons;
 import org.livingdoc.intellij.gui.toolwindows.ToolWindowPanel;
 
@@ -28,5 +29,10 @@ public class ToolWindowFactoryImpl implements ToolWindowFactory {
         content.putUserData(ToolWindow.SHOW_CONTENT_ICON, Boolean.TRUE);
         content.setCloseable(true);
         toolWindow.getContentManager().addContent(content);
+
+        Content resultsContent = contentFactory.createContent(toolWindowPanel.getResultsPanel(),
+                I18nSupport.getValue("toolwindows.results.title"), false);
+        resultsContent.setCloseable(false);
+        toolWindow.getContentManager().addContent(resultsContent);
     }
 }
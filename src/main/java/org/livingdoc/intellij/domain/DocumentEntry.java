@@ -0,0 +1,79 @@
+package org.livingdoc.intellij.domain;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact representation of a document of the specification hierarchy as it is received from the server.<br>
+ * It is the source of the {@link SpecificationNode}s of the repository view tree and it is shared between the
+ * modules using the same repository, so it must not be modified once it has been built.
+ */
+public class DocumentEntry implements Serializable {
+
+    private static final long serialVersionUID = 2316502497542836911L;
+
+    private String title;
+    private boolean executable;
+    private boolean canBeImplemented;
+    private List<DocumentEntry> children = new ArrayList<>();
+
+
+    public DocumentEntry() {
+        // just for unit testing.
+    }
+
+    public DocumentEntry(final String title, final boolean executable, final boolean canBeImplemented) {
+        this.title = title;
+        this.executable = executable;
+        this.canBeImplemented = canBeImplemented;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("title", title)
+                .append("executable", executable)
+                .append("canBeImplemented", canBeImplemented)
+                .append("children", children.size())
+                .toString();
+    }
+
+    public boolean hasChildren() {
+        return !children.isEmpty();
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(final String title) {
+        this.title = title;
+    }
+
+    public boolean isExecutable() {
+        return executable;
+    }
+
+    public void setExecutable(final boolean executable) {
+        this.executable = executable;
+    }
+
+    public boolean isCanBeImplemented() {
+        return canBeImplemented;
+    }
+
+    public void setCanBeImplemented(final boolean canBeImplemented) {
+        this.canBeImplemented = canBeImplemented;
+    }
+
+    public List<DocumentEntry> getChildren() {
+        return children;
+    }
+
+    public void setChildren(final List<DocumentEntry> children) {
+        this.children = children;
+    }
+}
@@ -33,6 +33,15 @@ public final class ProjectSettings implements PersistentStateComponent<ProjectSe
     private String user;
     private boolean isConnected;
     private LivingDocVersion livingDocVersion = LivingDocVersion.LEGACY; //FIXME
+    private int treeLoadParallelism = 4;
+    private int treeCacheTtlMinutes = 60;
+    private boolean lazyTree = true;
+    private int documentCacheTtlMinutes = 10;
+    private boolean suiteExecution = true;
+    private int executionWorkers = 0;
+    private boolean runnerDaemon = true;
+    private boolean skipUnchanged = false;
+    private boolean classDataSharing = false;
 
     @NotNull
     public static ProjectSettings getInstance(@NotNull final Project project) {
@@ -109,4 +118,107 @@ public final class ProjectSettings implements PersistentStateComponent<ProjectSe
     public void setLivingDocVersion(LivingDocVersion livingDocVersion) {
         this.livingDocVersion = livingDocVersion;
     }
+
+    /**
+     * @return Maximum number of concurrent server calls while the repository tree is loaded.
+     */
+    public int getTreeLoadParallelism() {
+        return treeLoadParallelism;
+    }
+
+    public void setTreeLoadParallelism(final int treeLoadParallelism) {
+        this.treeLoadParallelism = treeLoadParallelism;
+    }
+
+    /**
+     * @return Minutes during which the cached repository tree is shown without asking the server again.
+     */
+    public int getTreeCacheTtlMinutes() {
+        return treeCacheTtlMinutes;
+    }
+
+    public void setTreeCacheTtlMinutes(final int treeCacheTtlMinutes) {
+        this.treeCacheTtlMinutes = treeCacheTtlMinutes;
+    }
+
+    /**
+     * @return True whether the documents of a folder are added to the repository tree when the folder is expanded.
+     */
+    public boolean isLazyTree() {
+        return lazyTree;
+    }
+
+    public void setLazyTree(final boolean lazyTree) {
+        this.lazyTree = lazyTree;
+    }
+
+    /**
+     * @return Minutes during which a downloaded implemented specification is executed again without downloading it.
+     * The current versions are always downloaded. Zero disables the document cache.
+     */
+    public int getDocumentCacheTtlMinutes() {
+        return documentCacheTtlMinutes;
+    }
+
+    public void setDocumentCacheTtlMinutes(final int documentCacheTtlMinutes) {
+        this.documentCacheTtlMinutes = documentCacheTtlMinutes;
+    }
+
+    /**
+     * @return True whether the selected specifications of the same module are executed in a single JVM.
+     */
+    public boolean isSuiteExecution() {
+        return suiteExecution;
+    }
+
+    public void setSuiteExecution(final boolean suiteExecution) {
+        this.suiteExecution = suiteExecution;
+    }
+
+    /**
+     * @return Maximum number of runner JVMs of a suite execution. Zero for the available processors.
+     */
+    public int getExecutionWorkers() {
+        return executionWorkers;
+    }
+
+    public void setExecutionWorkers(final int executionWorkers) {
+        this.executionWorkers = executionWorkers;
+    }
+
+    /**
+     * @return True whether the specifications are run in warm runner JVMs, reused between executions.
+     */
+    public boolean isRunnerDaemon() {
+        return runnerDaemon;
+    }
+
+    public void setRunnerDaemon(final boolean runnerDaemon) {
+        this.runnerDaemon = runnerDaemon;
+    }
+
+    /**
+     * @return True whether a suite reports the last green result of the specifications whose document, module
+     * classpath and system under development have not changed, instead of running them.
+     */
+    public boolean isSkipUnchanged() {
+        return skipUnchanged;
+    }
+
+    public void setSkipUnchanged(final boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    /**
+     * @return True whether the runner JVMs share the classes of their classpath through an archive, trained by the
+     * first runner of the classpath. Disabled by default: only the runners started without daemon, on a JDK 13 or
+     * later and with a classpath of jars only, can use it.
+     */
+    public boolean isClassDataSharing() {
+        return classDataSharing;
+    }
+
+    public void setClassDataSharing(final boolean classDataSharing) {
+        this.classDataSharing = classDataSharing;
+    }
 }
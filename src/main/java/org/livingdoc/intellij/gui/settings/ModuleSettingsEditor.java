@@ -12,6 +12,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.livingdoc.intellij.common.I18nSupport;
 import org.livingdoc.intellij.connector.LivingDocConnector;
+import org.livingdoc.intellij.connector.LivingDocConnectorService;
 import org.livingdoc.intellij.domain.LivingDocException;
 import org.livingdoc.intellij.domain.ModuleSettings;
 import org.livingdoc.intellij.domain.ProjectSettings;
@@ -102,7 +103,7 @@ public class ModuleSettingsEditor extends SettingsEditor<ModuleSettings> {
 
     private void loadProjects(final String selectedProject) {
 
-        LivingDocConnector livingDocConnector = LivingDocConnector.newInstance(projectSettings);
+        LivingDocConnector livingDocConnector = LivingDocConnectorService.getInstance(project).getConnector();
 
         try {
             Collection<String> projects = livingDocConnector.getAllProjects();
@@ -144,7 +145,7 @@ public class ModuleSettingsEditor extends SettingsEditor<ModuleSettings> {
         }
 
         try {
-            LivingDocConnector livingDocConnector = LivingDocConnector.newInstance(projectSettings);
+            LivingDocConnector livingDocConnector = LivingDocConnectorService.getInstance(project).getConnector();
             Collection<String> systems = livingDocConnector.getSystemUnderTestsForProject(selectedProject);
             for (String system : systems) {
                 sudCombo.addItem(system);
@@ -0,0 +1,77 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.domain.SpecificationNode;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates the executable specifications under a node of the repository tree (module, repository or folder), in
+ * tree order. A root node that is an executable specification is iterated alone, without its child pages, so a
+ * selected specification runs on its own. The folders not loaded yet ({@link LazyDocumentTreeNode}) are loaded when
+ * the iteration reaches them, so the results are shown on the tree nodes.<br>
+ * It must be used in the event dispatch thread, like the tree.
+ */
+public class ExecutableSpecificationIterator implements Iterator<SpecificationNode> {
+
+    private final DefaultTreeModel treeModel;
+    private final Deque<DefaultMutableTreeNode> pendingNodes = new ArrayDeque<>();
+
+    private SpecificationNode next;
+
+
+    /**
+     * @param rootNode  The node whose executable specifications are iterated, itself included.
+     * @param treeModel {@link DefaultTreeModel} to notify the loaded folders, or null whether the tree is not visible.
+     */
+    public ExecutableSpecificationIterator(@NotNull final DefaultMutableTreeNode rootNode, @Nullable final DefaultTreeModel treeModel) {
+
+        this.treeModel = treeModel;
+
+        Object userObject = rootNode.getUserObject();
+        if (userObject instanceof SpecificationNode && ((SpecificationNode) userObject).isExecutable()) {
+            this.next = (SpecificationNode) userObject;
+        } else {
+            this.pendingNodes.push(rootNode);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+
+        while (next == null && !pendingNodes.isEmpty()) {
+
+            DefaultMutableTreeNode treeNode = pendingNodes.pop();
+
+            if (treeNode instanceof LazyDocumentTreeNode) {
+                ((LazyDocumentTreeNode) treeNode).loadChildren(treeModel);
+            }
+            for (int index = treeNode.getChildCount() - 1; index >= 0; index--) {
+                pendingNodes.push((DefaultMutableTreeNode) treeNode.getChildAt(index));
+            }
+
+            Object userObject = treeNode.getUserObject();
+            if (userObject instanceof SpecificationNode && ((SpecificationNode) userObject).isExecutable()) {
+                next = (SpecificationNode) userObject;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public SpecificationNode next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SpecificationNode specificationNode = next;
+        next = null;
+        return specificationNode;
+    }
+}
@@ -0,0 +1,84 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.domain.LivingDocExecution;
+
+import java.io.File;
+
+/**
+ * Result of a specification in the {@link ResultsPanel}. It only refers to the result file, so the results are not
+ * kept in memory.
+ */
+public class ExecutionResult {
+
+    private final String specificationName;
+    private final int success;
+    private final int failures;
+    private final int errors;
+    private final int ignored;
+    private final boolean hasError;
+    private final long durationMillis;
+    private final File resultFile;
+    private final boolean cached;
+
+
+    /**
+     * @param specificationName Name of the specification.
+     * @param execution         Its execution, or null whether it has not been run.
+     * @param durationMillis    Its duration, or -1 whether it is unknown.
+     * @param resultFile        Its result file, or null whether it has not been run.
+     * @param cached            True whether it has not been run because it has not changed since its last green
+     *                          execution, whose results are shown.
+     */
+    public ExecutionResult(@NotNull final String specificationName, @Nullable final LivingDocExecution execution,
+                           final long durationMillis, @Nullable final File resultFile, final boolean cached) {
+
+        this.specificationName = specificationName;
+        this.success = execution != null ? execution.getSuccess() : 0;
+        this.failures = execution != null ? execution.getFailures() : 0;
+        this.errors = execution != null ? execution.getErrors() : 0;
+        this.ignored = execution != null ? execution.getIgnored() : 0;
+        this.hasError = execution == null || execution.hasException() || execution.hasFailed();
+        this.durationMillis = durationMillis;
+        this.resultFile = resultFile;
+        this.cached = cached;
+    }
+
+    public String getSpecificationName() {
+        return specificationName;
+    }
+
+    public int getSuccess() {
+        return success;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    public int getIgnored() {
+        return ignored;
+    }
+
+    public boolean hasError() {
+        return hasError;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Nullable
+    public File getResultFile() {
+        return resultFile;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+}
@@ -0,0 +1,121 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.common.Icons;
+import org.livingdoc.intellij.domain.Node;
+import org.livingdoc.intellij.domain.SpecificationNode;
+import org.livingdoc.intellij.run.RemoteRunConfiguration;
+import org.livingdoc.intellij.run.SuiteScheduler;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolls up the specification results to the selected module, repository or folder nodes: once all the
+ * specifications under a node have finished, its icon shows whether any of them has errors.
+ */
+public class ExecutionRollup implements SuiteScheduler.SpecificationListener {
+
+    private final DefaultTreeModel treeModel;
+
+    private final Map<SpecificationNode, List<Container>> containersBySpecification = new IdentityHashMap<>();
+
+
+    /**
+     * @param treeModel {@link DefaultTreeModel} of the repository tree.
+     */
+    public ExecutionRollup(@NotNull final DefaultTreeModel treeModel) {
+        this.treeModel = treeModel;
+    }
+
+    /**
+     * Starts the rollup of a selected node.
+     *
+     * @param treeNode The selected node.
+     * @return The handle to register its specifications.
+     */
+    public Container addContainer(@NotNull final DefaultMutableTreeNode treeNode) {
+        return new Container(treeNode);
+    }
+
+    @Override
+    public void finished(@NotNull final RemoteRunConfiguration specification, final boolean error) {
+
+        List<Container> containers;
+        synchronized (this) {
+            containers = containersBySpecification.remove(specification.getSelectedNode());
+        }
+        if (containers != null) {
+            containers.forEach(container -> container.finished(error));
+        }
+    }
+
+    /**
+     * A selected node and the state of its specifications.
+     */
+    public final class Container {
+
+        private final DefaultMutableTreeNode treeNode;
+
+        private int total;
+        private int pending;
+        private boolean hasError;
+        private boolean enumerated;
+
+        private Container(final DefaultMutableTreeNode treeNode) {
+            this.treeNode = treeNode;
+        }
+
+        /**
+         * Registers a specification under the node, before it is queued.
+         */
+        public void add(@NotNull final SpecificationNode specificationNode) {
+
+            synchronized (ExecutionRollup.this) {
+                total++;
+                pending++;
+                containersBySpecification.computeIfAbsent(specificationNode, key -> new ArrayList<>(1)).add(this);
+            }
+        }
+
+        /**
+         * All the specifications under the node have been registered.
+         */
+        public void enumerated() {
+
+            synchronized (ExecutionRollup.this) {
+                enumerated = true;
+            }
+            paintWhenComplete();
+        }
+
+        private void finished(final boolean error) {
+
+            synchronized (ExecutionRollup.this) {
+                pending--;
+                hasError |= error;
+            }
+            paintWhenComplete();
+        }
+
+        private void paintWhenComplete() {
+
+            boolean error;
+            synchronized (ExecutionRollup.this) {
+                if (!enumerated || pending > 0 || total == 0) {
+                    return;
+                }
+                error = hasError;
+            }
+            SwingUtilities.invokeLater(() -> {
+                ((Node) treeNode.getUserObject()).setIcon(error ? Icons.ERROR : Icons.SUCCESS);
+                treeModel.nodeChanged(treeNode);
+            });
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.domain.DocumentEntry;
+import org.livingdoc.intellij.domain.SpecificationNode;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Tree node of a document whose children are kept as {@link DocumentEntry}s until they are needed.<br>
+ * The children are painted (and sorted) the first time the node is expanded, so the documents nobody opens never
+ * become Swing nodes.
+ *
+ * @see RepositoryViewUtils#paintDocumentEntries(List, DefaultMutableTreeNode, boolean)
+ * @see ToolWindowPanel
+ */
+public class LazyDocumentTreeNode extends DefaultMutableTreeNode {
+
+    private static final long serialVersionUID = -3101474867950722389L;
+
+    private transient List<DocumentEntry> pendingEntries;
+
+
+    LazyDocumentTreeNode(@NotNull final SpecificationNode specificationNode, @NotNull final List<DocumentEntry> pendingEntries) {
+        super(specificationNode, !pendingEntries.isEmpty());
+        this.pendingEntries = pendingEntries;
+    }
+
+    /**
+     * @return True whether the children have been painted.
+     */
+    public boolean isLoaded() {
+        return pendingEntries == null;
+    }
+
+    /**
+     * @return The documents not painted yet, or an empty list whether the children have been painted.
+     */
+    List<DocumentEntry> getPendingEntries() {
+        return pendingEntries == null ? Collections.emptyList() : pendingEntries;
+    }
+
+    /**
+     * Replaces the documents not painted yet. Only valid while the node is not loaded.
+     */
+    void setPendingEntries(@NotNull final List<DocumentEntry> pendingEntries) {
+        this.pendingEntries = pendingEntries;
+        setAllowsChildren(!pendingEntries.isEmpty());
+    }
+
+    /**
+     * Paints the children of this node, whether they have not been painted yet.
+     *
+     * @param treeModel {@link DefaultTreeModel} to notify the new nodes, or null whether the node is not visible.
+     */
+    public void loadChildren(@Nullable final DefaultTreeModel treeModel) {
+
+        if (isLoaded()) {
+            return;
+        }
+        List<DocumentEntry> documentEntries = pendingEntries;
+        pendingEntries = null;
+
+        RepositoryViewUtils.paintDocumentEntries(documentEntries, this, true);
+
+        if (treeModel != null && getChildCount() > 0) {
+            treeModel.nodesWereInserted(this, IntStream.range(0, getChildCount()).toArray());
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.common.PluginProperties;
+import org.livingdoc.intellij.domain.DocumentEntry;
+import org.livingdoc.intellij.domain.ModuleNode;
+import org.livingdoc.intellij.domain.RepositoryNode;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk snapshots of the repository view tree, stored under the IDE system directory.<br>
+ * There are two kinds of snapshots:
+ * <ul>
+ * <li>The repositories of a module, keyed by server URL, project and system under test.</li>
+ * <li>The specification hierarchy of a repository, keyed by server URL, project, system under test and
+ * repository UID.</li>
+ * </ul>
+ * Each snapshot is a small versioned binary file. Snapshots written by another format version are ignored.
+ *
+ * @see RepositoryTreeLoader
+ */
+class RepositoryTreeCache {
+
+    private static final Logger LOG = Logger.getInstance(RepositoryTreeCache.class);
+
+    private static final int MAGIC = 0x4C445453; // LDTS
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int EXECUTABLE = 1;
+    private static final int CAN_BE_IMPLEMENTED = 2;
+
+    private final File directory;
+
+
+    RepositoryTreeCache(@NotNull final File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return The cache of the IDE system directory.
+     */
+    static RepositoryTreeCache getInstance() {
+        return new RepositoryTreeCache(new File(PathManager.getSystemPath(), PluginProperties.getValue("livingdoc.dir.cache.tree")));
+    }
+
+    @Nullable
+    Snapshot<List<RepositoryNode>> loadRepositories(final String serverUrl, @NotNull final ModuleNode moduleNode) {
+
+        return read(getRepositoriesFile(serverUrl, moduleNode), input -> {
+
+            int size = input.readInt();
+            List<RepositoryNode> repositoryNodes = new ArrayList<>(size);
+
+            for (int i = 0; i < size; i++) {
+                RepositoryNode repositoryNode = new RepositoryNode(readString(input));
+                repositoryNode.setUid(readString(input));
+                repositoryNode.setName(readString(input));
+                repositoryNode.setBaseTestUrl(readString(input));
+                repositoryNode.setBaseRepositoryUtl(readString(input));
+                repositoryNode.setTypeClassName(readString(input));
+                repositoryNode.setTypeName(readString(input));
+                repositoryNode.setTypeDocumentUrlFormat(readString(input));
+                repositoryNodes.add(repositoryNode);
+            }
+            return repositoryNodes;
+        });
+    }
+
+    void saveRepositories(final String serverUrl, @NotNull final ModuleNode moduleNode,
+                          @NotNull final Collection<RepositoryNode> repositoryNodes) {
+
+        write(getRepositoriesFile(serverUrl, moduleNode), output -> {
+
+            output.writeInt(repositoryNodes.size());
+
+            for (RepositoryNode repositoryNode : repositoryNodes) {
+                writeString(output, repositoryNode.getNodeName());
+                writeString(output, repositoryNode.getUid());
+                writeString(output, repositoryNode.getName());
+                writeString(output, repositoryNode.getBaseTestUrl());
+                writeString(output, repositoryNode.getBaseRepositoryUtl());
+                writeString(output, repositoryNode.getTypeClassName());
+                writeString(output, repositoryNode.getTypeName());
+                writeString(output, repositoryNode.getTypeDocumentUrlFormat());
+            }
+        });
+    }
+
+    @Nullable
+    Snapshot<List<DocumentEntry>> loadHierarchy(final String serverUrl, @NotNull final ModuleNode moduleNode,
+                                               @NotNull final RepositoryNode repositoryNode) {
+
+        return read(getHierarchyFile(serverUrl, moduleNode, repositoryNode), RepositoryTreeCache::readDocumentEntries);
+    }
+
+    void saveHierarchy(final String serverUrl, @NotNull final ModuleNode moduleNode,
+                       @NotNull final RepositoryNode repositoryNode, @NotNull final List<DocumentEntry> documentEntries) {
+
+        write(getHierarchyFile(serverUrl, moduleNode, repositoryNode), output -> writeDocumentEntries(output, documentEntries));
+    }
+
+    private File getRepositoriesFile(final String serverUrl, final ModuleNode moduleNode) {
+        return getFile("repositories", serverUrl, moduleNode.getProject(), moduleNode.getSystemUnderTest());
+    }
+
+    private File getHierarchyFile(final String serverUrl, final ModuleNode moduleNode, final RepositoryNode repositoryNode) {
+        return getFile("hierarchy", serverUrl, moduleNode.getProject(), moduleNode.getSystemUnderTest(), repositoryNode.getUid());
+    }
+
+    private File getFile(final String kind, final String... keys) {
+        return new File(directory, kind + "-" + DigestUtils.sha1Hex(String.join("\n", keys)) + ".bin");
+    }
+
+    private <T> Snapshot<T> read(final File file, final SnapshotReader<T> reader) {
+
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                LOG.info("Ignored snapshot with another format: " + file.getName());
+                return null;
+            }
+            long timestamp = input.readLong();
+            return new Snapshot<>(reader.read(input), timestamp);
+
+        } catch (IOException ioe) {
+            LOG.warn("Corrupted snapshot " + file.getName(), ioe);
+            return null;
+        }
+    }
+
+    private void write(final File file, final SnapshotWriter writer) {
+
+        File tempFile = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tempFile))))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeLong(System.currentTimeMillis());
+                writer.write(output);
+            }
+            // The readers never see a half written snapshot.
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        } catch (IOException ioe) {
+            LOG.warn("The snapshot " + file.getName() + " has not been saved", ioe);
+
+            if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+                LOG.warn("The file " + tempFile.getName() + " has not been deleted.");
+            }
+        }
+    }
+
+    private static List<DocumentEntry> readDocumentEntries(final DataInputStream input) throws IOException {
+
+        int size = input.readInt();
+        List<DocumentEntry> documentEntries = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            String title = input.readUTF();
+            int flags = input.readByte();
+
+            DocumentEntry documentEntry = new DocumentEntry(title, (flags & EXECUTABLE) != 0, (flags & CAN_BE_IMPLEMENTED) != 0);
+            documentEntry.setChildren(readDocumentEntries(input));
+            documentEntries.add(documentEntry);
+        }
+        return documentEntries;
+    }
+
+    private static void writeDocumentEntries(final DataOutputStream output, final List<DocumentEntry> documentEntries) throws IOException {
+
+        output.writeInt(documentEntries.size());
+
+        for (DocumentEntry documentEntry : documentEntries) {
+            output.writeUTF(documentEntry.getTitle());
+            output.writeByte((documentEntry.isExecutable() ? EXECUTABLE : 0) | (documentEntry.isCanBeImplemented() ? CAN_BE_IMPLEMENTED : 0));
+            writeDocumentEntries(output, documentEntry.getChildren());
+        }
+    }
+
+    private static String readString(final DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SnapshotReader<T> {
+        T read(DataInputStream input) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface SnapshotWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+
+    /**
+     * Content of a snapshot and the time when it was saved.
+     */
+    static class Snapshot<T> {
+
+        private final T value;
+        private final long timestamp;
+
+        Snapshot(final T value, final long timestamp) {
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+
+        T getValue() {
+            return value;
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+    }
+}
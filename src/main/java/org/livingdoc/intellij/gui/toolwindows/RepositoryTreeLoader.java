@@ -0,0 +1,325 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.common.I18nSupport;
+import org.livingdoc.intellij.common.PluginExecutors;
+import org.livingdoc.intellij.connector.AsyncLivingDocConnector;
+import org.livingdoc.intellij.connector.LivingDocConnectorService;
+import org.livingdoc.intellij.domain.*;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the repository tree of the LivingDoc enabled modules.<br>
+ * The repositories of the modules and the specification hierarchies of the repositories are fetched concurrently,
+ * with at most {@link ProjectSettings#getTreeLoadParallelism()} calls in flight. The result is merged in the module
+ * order of the project and in the repository order of the server, whatever the order the calls finish.<br>
+ * Errors are isolated: a module or repository that can't be loaded is replaced by an error node under its module.
+ * <br><br>
+ * Every fetched module and repository is saved in the {@link RepositoryTreeCache}, so the next time the tree can be
+ * painted from the snapshots with {@link #loadCachedModules()} before asking the server.<br>
+ * With {@link ProjectSettings#isLazyTree()} only the first level of each repository is painted.
+ *
+ * @see ToolWindowPanel
+ */
+class RepositoryTreeLoader {
+
+    private static final Logger LOG = Logger.getInstance(RepositoryTreeLoader.class);
+
+    private static final long AWAIT_STEP_MILLIS = 100L;
+
+    private final Project project;
+    private final String serverUrl;
+    private final RepositoryTreeCache cache;
+    private final boolean lazyTree;
+
+    private long cacheTimestamp;
+
+
+    RepositoryTreeLoader(@NotNull final Project project) {
+        this.project = project;
+        this.serverUrl = ProjectSettings.getInstance(project).getUrlServer();
+        this.cache = RepositoryTreeCache.getInstance();
+        this.lazyTree = ProjectSettings.getInstance(project).isLazyTree();
+    }
+
+    /**
+     * Paints the tree nodes of every LivingDoc enabled module from the snapshots, without calling the server.
+     *
+     * @return A {@link List} with a {@link DefaultMutableTreeNode} for each module, or null whether a snapshot is
+     * missing.
+     * @see #getCacheTimestamp()
+     */
+    @Nullable
+    List<DefaultMutableTreeNode> loadCachedModules() {
+
+        List<DefaultMutableTreeNode> moduleTreeNodes = new ArrayList<>();
+        cacheTimestamp = Long.MAX_VALUE;
+
+        for (Module module : ModuleManager.getInstance(project).getModules()) {
+
+            ModuleSettings moduleSettings = ModuleSettings.getInstance(module);
+            if (!moduleSettings.isLivingDocEnabled()) {
+                continue;
+            }
+
+            ModuleNode moduleNode = newModuleNode(module, moduleSettings);
+            DefaultMutableTreeNode moduleTreeNode = new DefaultMutableTreeNode(moduleNode);
+
+            RepositoryTreeCache.Snapshot<List<RepositoryNode>> repositories = cache.loadRepositories(serverUrl, moduleNode);
+            if (repositories == null) {
+                return null;
+            }
+            cacheTimestamp = Math.min(cacheTimestamp, repositories.getTimestamp());
+
+            for (RepositoryNode repositoryNode : repositories.getValue()) {
+
+                RepositoryTreeCache.Snapshot<List<DocumentEntry>> hierarchy = cache.loadHierarchy(serverUrl, moduleNode, repositoryNode);
+                if (hierarchy == null) {
+                    return null;
+                }
+                cacheTimestamp = Math.min(cacheTimestamp, hierarchy.getTimestamp());
+
+                repositoryNode.setParent(moduleNode);
+                DefaultMutableTreeNode repositoryTreeNode = new DefaultMutableTreeNode(repositoryNode);
+                RepositoryViewUtils.paintDocumentEntries(hierarchy.getValue(), repositoryTreeNode, lazyTree);
+                moduleTreeNode.add(repositoryTreeNode);
+            }
+            moduleTreeNodes.add(moduleTreeNode);
+        }
+        return moduleTreeNodes.isEmpty() ? null : moduleTreeNodes;
+    }
+
+    /**
+     * @return Time of the oldest snapshot used by the last {@link #loadCachedModules()} call.
+     */
+    long getCacheTimestamp() {
+        return cacheTimestamp;
+    }
+
+    /**
+     * Fetches the tree nodes of every LivingDoc enabled module. The returned nodes are not attached to any tree model.
+     * <br>
+     * The indicator shows the module and repository being loaded. Whether it is cancelled, the pending server calls
+     * are interrupted and a {@link ProcessCanceledException} is thrown.
+     *
+     * @param indicator {@link ProgressIndicator} of the loading task.
+     * @return A {@link List} with a {@link DefaultMutableTreeNode} for each module.
+     */
+    List<DefaultMutableTreeNode> loadModules(@NotNull final ProgressIndicator indicator) {
+
+        ExecutorService executor = PluginExecutors.newBoundedExecutor("Repository Tree",
+                ProjectSettings.getInstance(project).getTreeLoadParallelism());
+
+        Progress progress = new Progress(indicator);
+
+        try {
+            AsyncLivingDocConnector connector = new AsyncLivingDocConnector(
+                    LivingDocConnectorService.getInstance(project).getConnector(), executor);
+
+            List<CompletableFuture<DefaultMutableTreeNode>> modules = new ArrayList<>();
+
+            for (Module module : ModuleManager.getInstance(project).getModules()) {
+
+                ModuleSettings moduleSettings = ModuleSettings.getInstance(module);
+                if (moduleSettings.isLivingDocEnabled()) {
+                    progress.addPending(1);
+                    modules.add(loadModule(connector, newModuleNode(module, moduleSettings), progress));
+                }
+            }
+
+            List<DefaultMutableTreeNode> moduleTreeNodes = new ArrayList<>(modules.size());
+            for (CompletableFuture<DefaultMutableTreeNode> module : modules) {
+                moduleTreeNodes.add(await(module, indicator));
+            }
+            return moduleTreeNodes;
+
+        } catch (ProcessCanceledException pce) {
+            progress.cancelCalls();
+            throw pce;
+
+        } finally {
+            PluginExecutors.release(executor);
+        }
+    }
+
+    private CompletableFuture<DefaultMutableTreeNode> loadModule(final AsyncLivingDocConnector connector,
+                                                                 final ModuleNode moduleNode, final Progress progress) {
+
+        DefaultMutableTreeNode moduleTreeNode = new DefaultMutableTreeNode(moduleNode);
+
+        return progress.track(connector.getRepositoriesForSystemUnderTest(moduleNode))
+                .thenApply(repositories -> {
+                    cache.saveRepositories(serverUrl, moduleNode, repositories);
+                    progress.addPending(repositories.size());
+                    progress.done(moduleNode.getNodeName());
+                    return repositories;
+                })
+                .thenCompose(repositories -> loadRepositories(connector, moduleNode, repositories, progress))
+                .handle((repositoryTreeNodes, error) -> {
+
+                    if (error != null) {
+                        moduleTreeNode.add(getErrorTreeNode(moduleNode, null, error));
+                    } else {
+                        repositoryTreeNodes.forEach(moduleTreeNode::add);
+                    }
+                    return moduleTreeNode;
+                });
+    }
+
+    private CompletableFuture<List<DefaultMutableTreeNode>> loadRepositories(final AsyncLivingDocConnector connector,
+                                                                             final ModuleNode moduleNode,
+                                                                             final Collection<RepositoryNode> repositories,
+                                                                             final Progress progress) {
+
+        List<CompletableFuture<DefaultMutableTreeNode>> futures = new ArrayList<>(repositories.size());
+
+        for (RepositoryNode repositoryNode : repositories) {
+
+            repositoryNode.setParent(moduleNode);
+            DefaultMutableTreeNode repositoryTreeNode = new DefaultMutableTreeNode(repositoryNode);
+
+            futures.add(progress.track(connector.getSpecificationHierarchy(repositoryNode, moduleNode))
+                    .thenAccept(documentEntries -> {
+                        cache.saveHierarchy(serverUrl, moduleNode, repositoryNode, documentEntries);
+                        RepositoryViewUtils.paintDocumentEntries(documentEntries, repositoryTreeNode, lazyTree);
+                        progress.done(moduleNode.getNodeName() + " / " + repositoryNode.getName());
+                    })
+                    .handle((result, error) -> error == null
+                            ? repositoryTreeNode
+                            : getErrorTreeNode(moduleNode, repositoryNode, error)));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(done -> {
+
+            List<DefaultMutableTreeNode> repositoryTreeNodes = new ArrayList<>(futures.size());
+            futures.forEach(future -> repositoryTreeNodes.add(future.join()));
+            return repositoryTreeNodes;
+        });
+    }
+
+    /**
+     * Waits for the future checking the cancellation of the indicator.
+     */
+    private static <T> T await(final CompletableFuture<T> future, final ProgressIndicator indicator) {
+
+        while (true) {
+            indicator.checkCanceled();
+            try {
+                return future.get(AWAIT_STEP_MILLIS, TimeUnit.MILLISECONDS);
+
+            } catch (TimeoutException te) {
+                // Check the cancellation again.
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(ie);
+
+            } catch (ExecutionException ee) {
+                throw new CompletionException(ee.getCause());
+            }
+        }
+    }
+
+    private ModuleNode newModuleNode(final Module module, final ModuleSettings moduleSettings) {
+
+        ModuleNode moduleNode = new ModuleNode(
+                module.getName() + " [" + StringUtils.defaultIfBlank(moduleSettings.getSud(),
+                        I18nSupport.getValue("toolwindows.error.loading.repositories.noproject")) + "]",
+                module.getName());
+        moduleNode.setSystemUnderTest(moduleSettings.getSud());
+        moduleNode.setProject(moduleSettings.getProject());
+        return moduleNode;
+    }
+
+    private static DefaultMutableTreeNode getErrorTreeNode(final ModuleNode moduleNode, final RepositoryNode repositoryNode,
+                                                           final Throwable error) {
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+
+        String message;
+        if (cause instanceof HttpClientErrorException) {
+            LOG.warn(cause);
+            message = I18nSupport.getValue("toolwindows.error.loading.repositories.unauthorized");
+
+        } else if (cause instanceof CancellationException) {
+            // The load has been cancelled: the node is discarded.
+            message = I18nSupport.getValue("toolwindows.error.loading.repositories");
+
+        } else if (cause instanceof HttpServerErrorException) {
+            LOG.error(cause);
+            message = I18nSupport.getValue("toolwindows.error.loading.repositories.internal");
+
+        } else {
+            LOG.error(cause);
+            message = I18nSupport.getValue("toolwindows.error.loading.repositories");
+        }
+
+        if (repositoryNode != null) {
+            message = repositoryNode.getName() + " - " + message;
+        }
+
+        Node errorNode = RepositoryViewUtils.getErrorNode(message + cause.getMessage());
+        errorNode.setParent(moduleNode);
+        return new DefaultMutableTreeNode(errorNode, false);
+    }
+
+    /**
+     * Progress of a load: the modules and repositories already loaded over the ones discovered so far.
+     */
+    private static class Progress {
+
+        private final ProgressIndicator indicator;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger done = new AtomicInteger();
+        private final Queue<CompletableFuture<?>> calls = new ConcurrentLinkedQueue<>();
+
+
+        Progress(final ProgressIndicator indicator) {
+            this.indicator = indicator;
+            indicator.setIndeterminate(false);
+            indicator.setText(I18nSupport.getValue("toolwindows.progress.loading"));
+        }
+
+        <T> CompletableFuture<T> track(final CompletableFuture<T> call) {
+            calls.add(call);
+            return call;
+        }
+
+        void addPending(final int count) {
+            pending.addAndGet(count);
+        }
+
+        void done(final String name) {
+            int finished = done.incrementAndGet();
+            indicator.setText2(name);
+            indicator.setFraction((double) finished / Math.max(finished, pending.get()));
+        }
+
+        void cancelCalls() {
+            calls.forEach(call -> call.cancel(true));
+        }
+    }
+}
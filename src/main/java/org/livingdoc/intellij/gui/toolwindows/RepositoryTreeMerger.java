@@ -0,0 +1,283 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.domain.ModuleNode;
+import org.livingdoc.intellij.domain.Node;
+import org.livingdoc.intellij.domain.RepositoryNode;
+import org.livingdoc.intellij.domain.SpecificationNode;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Merges a freshly loaded repository tree into the tree shown by the repository view.<br>
+ * The nodes are matched by module name, repository UID and document title. Only the differences are applied and
+ * they are notified with fine-grained <code>nodesWereInserted</code>, <code>nodesWereRemoved</code> and
+ * <code>nodesChanged</code> events, so the expansion state, the selection and the result icons of the unchanged
+ * nodes are kept. The folders never expanded ({@link LazyDocumentTreeNode}) just take the fresh documents.<br>
+ * It must be called on the Event Dispatch Thread.
+ *
+ * @see DefaultTreeModel
+ */
+class RepositoryTreeMerger {
+
+    private final DefaultTreeModel treeModel;
+
+
+    RepositoryTreeMerger(@NotNull final DefaultTreeModel treeModel) {
+        this.treeModel = treeModel;
+    }
+
+    /**
+     * Makes the children of the target node equal to the fresh nodes. The fresh nodes can be moved into the tree.
+     *
+     * @param target        {@link DefaultMutableTreeNode} Node of the tree model.
+     * @param freshChildren The new children for the target node. They must not belong to any tree model.
+     */
+    void merge(@NotNull final DefaultMutableTreeNode target, @NotNull final List<DefaultMutableTreeNode> freshChildren) {
+
+        List<String> freshKeys = new ArrayList<>(freshChildren.size());
+        for (DefaultMutableTreeNode freshChild : freshChildren) {
+            freshKeys.add(getKey(freshChild));
+        }
+
+        removeMissingChildren(target, new HashSet<>(freshKeys));
+
+        if (!isSameOrder(target, freshKeys)) {
+            replaceChildren(target, freshChildren);
+            return;
+        }
+
+        List<Integer> insertedIndexes = new ArrayList<>();
+        List<Integer> changedIndexes = new ArrayList<>();
+
+        for (int i = 0; i < freshChildren.size(); i++) {
+
+            DefaultMutableTreeNode freshChild = freshChildren.get(i);
+
+            if (i < target.getChildCount() && freshKeys.get(i).equals(getKey((DefaultMutableTreeNode) target.getChildAt(i)))) {
+
+                if (mergeChild((DefaultMutableTreeNode) target.getChildAt(i), freshChild)) {
+                    changedIndexes.add(i);
+                }
+
+            } else {
+                target.insert(freshChild, i);
+                insertedIndexes.add(i);
+            }
+        }
+
+        reparentChildren(target);
+
+        if (!insertedIndexes.isEmpty()) {
+            treeModel.nodesWereInserted(target, toArray(insertedIndexes));
+        }
+        if (!changedIndexes.isEmpty()) {
+            treeModel.nodesChanged(target, toArray(changedIndexes));
+        }
+    }
+
+    /**
+     * @return True whether the child node must be repainted.
+     */
+    private boolean mergeChild(final DefaultMutableTreeNode child, final DefaultMutableTreeNode freshChild) {
+
+        boolean changed = updateUserObject(child, freshChild);
+
+        if (isPending(child) && isPending(freshChild)) {
+            // Nobody has expanded the node yet: there is nothing to merge.
+            boolean allowedChildren = child.getAllowsChildren();
+            ((LazyDocumentTreeNode) child).setPendingEntries(((LazyDocumentTreeNode) freshChild).getPendingEntries());
+            return changed || allowedChildren != child.getAllowsChildren();
+        }
+
+        if (isPending(child)) {
+            ((LazyDocumentTreeNode) child).loadChildren(treeModel);
+        }
+        if (isPending(freshChild)) {
+            ((LazyDocumentTreeNode) freshChild).loadChildren(null);
+        }
+
+        // A node must allow children before inserting them and it must be empty before forbidding them.
+        boolean allowsChildren = freshChild.getAllowsChildren();
+        changed |= allowsChildren != child.getAllowsChildren();
+
+        if (allowsChildren) {
+            child.setAllowsChildren(true);
+        }
+        merge(child, getChildren(freshChild));
+        child.setAllowsChildren(allowsChildren);
+
+        return changed;
+    }
+
+    private static boolean isPending(final DefaultMutableTreeNode treeNode) {
+        return treeNode instanceof LazyDocumentTreeNode && !((LazyDocumentTreeNode) treeNode).isLoaded();
+    }
+
+    private void removeMissingChildren(final DefaultMutableTreeNode target, final Set<String> freshKeys) {
+
+        List<Integer> removedIndexes = new ArrayList<>();
+        List<Object> removedChildren = new ArrayList<>();
+
+        for (int i = 0; i < target.getChildCount(); i++) {
+            DefaultMutableTreeNode child = (DefaultMutableTreeNode) target.getChildAt(i);
+
+            if (!freshKeys.contains(getKey(child))) {
+                removedIndexes.add(i);
+                removedChildren.add(child);
+            }
+        }
+
+        if (!removedIndexes.isEmpty()) {
+
+            for (int i = removedIndexes.size() - 1; i >= 0; i--) {
+                target.remove(removedIndexes.get(i));
+            }
+            treeModel.nodesWereRemoved(target, toArray(removedIndexes), removedChildren.toArray());
+        }
+    }
+
+    /**
+     * The remaining children must be in the same relative order as the fresh ones, otherwise the insertions by
+     * index would be wrong. It only happens when a title has changed its sort position.
+     */
+    private static boolean isSameOrder(final DefaultMutableTreeNode target, final List<String> freshKeys) {
+
+        int freshIndex = 0;
+
+        for (int i = 0; i < target.getChildCount(); i++) {
+            String key = getKey((DefaultMutableTreeNode) target.getChildAt(i));
+
+            while (freshIndex < freshKeys.size() && !freshKeys.get(freshIndex).equals(key)) {
+                freshIndex++;
+            }
+            if (freshIndex == freshKeys.size()) {
+                return false;
+            }
+            freshIndex++;
+        }
+        return true;
+    }
+
+    private void replaceChildren(final DefaultMutableTreeNode target, final List<DefaultMutableTreeNode> freshChildren) {
+
+        target.removeAllChildren();
+        freshChildren.forEach(target::add);
+        reparentChildren(target);
+
+        treeModel.nodeStructureChanged(target);
+    }
+
+    /**
+     * Keeps the current user object whether only the local state is different (version in use, result icon).
+     *
+     * @return True whether the user object has changed.
+     */
+    private static boolean updateUserObject(final DefaultMutableTreeNode child, final DefaultMutableTreeNode freshChild) {
+
+        Object userObject = child.getUserObject();
+        Object freshUserObject = freshChild.getUserObject();
+
+        if (userObject instanceof SpecificationNode) {
+
+            SpecificationNode specificationNode = (SpecificationNode) userObject;
+            SpecificationNode freshSpecificationNode = (SpecificationNode) freshUserObject;
+
+            if (specificationNode.isExecutable() == freshSpecificationNode.isExecutable()
+                    && specificationNode.isCanBeImplemented() == freshSpecificationNode.isCanBeImplemented()) {
+                return false;
+            }
+            specificationNode.setExecutable(freshSpecificationNode.isExecutable());
+            specificationNode.setCanBeImplemented(freshSpecificationNode.isCanBeImplemented());
+            specificationNode.setUsingCurrentVersion(freshSpecificationNode.isUsingCurrentVersion());
+            specificationNode.setIcon(freshSpecificationNode.getIcon());
+            return true;
+        }
+
+        if (isSameUserObject(userObject, freshUserObject)) {
+            return false;
+        }
+        child.setUserObject(freshUserObject);
+        return true;
+    }
+
+    private static boolean isSameUserObject(final Object userObject, final Object freshUserObject) {
+
+        if (userObject instanceof RepositoryNode) {
+            RepositoryNode repositoryNode = (RepositoryNode) userObject;
+            RepositoryNode freshRepositoryNode = (RepositoryNode) freshUserObject;
+
+            return StringUtils.equals(repositoryNode.getNodeName(), freshRepositoryNode.getNodeName())
+                    && StringUtils.equals(repositoryNode.getName(), freshRepositoryNode.getName())
+                    && StringUtils.equals(repositoryNode.getBaseTestUrl(), freshRepositoryNode.getBaseTestUrl())
+                    && StringUtils.equals(repositoryNode.getBaseRepositoryUtl(), freshRepositoryNode.getBaseRepositoryUtl())
+                    && StringUtils.equals(repositoryNode.getTypeClassName(), freshRepositoryNode.getTypeClassName())
+                    && StringUtils.equals(repositoryNode.getTypeName(), freshRepositoryNode.getTypeName())
+                    && StringUtils.equals(repositoryNode.getTypeDocumentUrlFormat(), freshRepositoryNode.getTypeDocumentUrlFormat());
+        }
+
+        if (userObject instanceof ModuleNode) {
+            ModuleNode moduleNode = (ModuleNode) userObject;
+            ModuleNode freshModuleNode = (ModuleNode) freshUserObject;
+
+            return StringUtils.equals(moduleNode.getNodeName(), freshModuleNode.getNodeName())
+                    && StringUtils.equals(moduleNode.getProject(), freshModuleNode.getProject())
+                    && StringUtils.equals(moduleNode.getSystemUnderTest(), freshModuleNode.getSystemUnderTest());
+        }
+
+        // Error nodes: the key already contains the whole message.
+        return true;
+    }
+
+    /**
+     * The moved fresh nodes and the kept nodes must point to the user object of their current parent.
+     */
+    private static void reparentChildren(final DefaultMutableTreeNode target) {
+
+        if (target.getParent() == null) {
+            // Root node: the modules don't have a parent node.
+            return;
+        }
+
+        Node parentNode = (Node) target.getUserObject();
+
+        for (int i = 0; i < target.getChildCount(); i++) {
+            Object userObject = ((DefaultMutableTreeNode) target.getChildAt(i)).getUserObject();
+            ((Node) userObject).setParent(parentNode);
+        }
+    }
+
+    private static String getKey(final DefaultMutableTreeNode treeNode) {
+
+        Object userObject = treeNode.getUserObject();
+
+        if (userObject instanceof ModuleNode) {
+            return "M:" + ((ModuleNode) userObject).getModuleName();
+        }
+        if (userObject instanceof RepositoryNode) {
+            return "R:" + ((RepositoryNode) userObject).getUid();
+        }
+        Node node = (Node) userObject;
+        return node.getType() + ":" + node.getNodeName();
+    }
+
+    private static List<DefaultMutableTreeNode> getChildren(final DefaultMutableTreeNode treeNode) {
+
+        List<DefaultMutableTreeNode> children = new ArrayList<>(treeNode.getChildCount());
+        for (Object child : Collections.list(treeNode.children())) {
+            children.add((DefaultMutableTreeNode) child);
+        }
+        return children;
+    }
+
+    private static int[] toArray(final List<Integer> indexes) {
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -5,6 +5,7 @@ import com.intellij.openapi.actionSystem.Presentation;
 import org.apache.commons.lang3.ArrayUtils;
 import org.livingdoc.intellij.common.Icons;
 import org.livingdoc.intellij.common.NodeType;
+import org.livingdoc.intellij.domain.DocumentEntry;
 import org.livingdoc.intellij.domain.ModuleNode;
 import org.livingdoc.intellij.domain.Node;
 import org.livingdoc.intellij.domain.RepositoryNode;
@@ -12,6 +13,9 @@ import org.livingdoc.intellij.domain.SpecificationNode;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * Utility class for repository view tool windows.
@@ -49,6 +53,69 @@ public class RepositoryViewUtils {
         }
     }
 
+    /**
+     * This recursive method adds the documents into the repository tree, sorted by title.
+     *
+     * @param documentEntries {@link List} of {@link DocumentEntry}s
+     * @param parentNode      {@link DefaultMutableTreeNode} Parent node of the documents indicated in the first parameter.
+     */
+    public static void paintDocumentEntries(final List<DocumentEntry> documentEntries, final DefaultMutableTreeNode parentNode) {
+        paintDocumentEntries(documentEntries, parentNode, false);
+    }
+
+    /**
+     * Adds the documents into the repository tree, sorted by title.<br>
+     * In lazy mode only the given level is painted: the children of each document are kept in a
+     * {@link LazyDocumentTreeNode} until it is expanded.
+     *
+     * @param documentEntries {@link List} of {@link DocumentEntry}s
+     * @param parentNode      {@link DefaultMutableTreeNode} Parent node of the documents indicated in the first parameter.
+     * @param lazy            True to paint only the first level.
+     */
+    public static void paintDocumentEntries(final List<DocumentEntry> documentEntries, final DefaultMutableTreeNode parentNode,
+                                            final boolean lazy) {
+
+        List<DocumentEntry> sortedEntries = new ArrayList<>(documentEntries);
+        sortedEntries.sort(Comparator.comparing(DocumentEntry::getTitle, String::compareToIgnoreCase));
+
+        for (DocumentEntry documentEntry : sortedEntries) {
+
+            SpecificationNode specificationNode = newSpecificationNode(documentEntry, (Node) parentNode.getUserObject());
+
+            if (lazy) {
+                parentNode.add(new LazyDocumentTreeNode(specificationNode, documentEntry.getChildren()));
+                continue;
+            }
+
+            DefaultMutableTreeNode childNode = new DefaultMutableTreeNode(specificationNode);
+            parentNode.add(childNode);
+
+            if (documentEntry.hasChildren()) {
+                paintDocumentEntries(documentEntry.getChildren(), childNode, false);
+            }
+        }
+    }
+
+    /**
+     * Creates the specification node for a document of the specification hierarchy.
+     *
+     * @param documentEntry {@link DocumentEntry}
+     * @param parentNode    {@link Node} Parent of the new node.
+     * @return {@link SpecificationNode}
+     */
+    public static SpecificationNode newSpecificationNode(final DocumentEntry documentEntry, final Node parentNode) {
+
+        SpecificationNode specificationNode = new SpecificationNode(documentEntry.getTitle(), parentNode);
+        specificationNode.setExecutable(documentEntry.isExecutable());
+        specificationNode.setCanBeImplemented(documentEntry.isCanBeImplemented());
+
+        if (specificationNode.isCanBeImplemented()) {
+            specificationNode.setUsingCurrentVersion(true);
+        }
+        specificationNode.setIcon(getNodeIcon(specificationNode));
+        return specificationNode;
+    }
+
     /**
      * Returns the corresponding node icon depending on the result of the execution
      *
@@ -102,6 +169,46 @@ public class RepositoryViewUtils {
         setEnabledForNode(selectedNodes, presentation, true);
     }
 
+    /**
+     * Sets the enabled/disabled action property for the nodes that can be executed: the executable nodes, and the
+     * modules, repositories and folders, whose executable specifications are executed.
+     *
+     * @param selectedNodes Selected nodes in the repository view tree.
+     * @param presentation  The specific place in the user interface of the action.
+     * @see Presentation
+     * @see DefaultMutableTreeNode
+     */
+    public static void setEnabledForExecutionNode(final DefaultMutableTreeNode[] selectedNodes,
+                                                  final Presentation presentation) {
+
+        if (ArrayUtils.isEmpty(selectedNodes)) {
+            presentation.setEnabled(false);
+            return;
+        }
+
+        boolean currentEnabled = true;
+
+        for (DefaultMutableTreeNode selectedNode : selectedNodes) {
+
+            NodeType type = ((Node) selectedNode.getUserObject()).getType();
+
+            if (type == NodeType.SPECIFICATION) {
+                boolean folder = selectedNode.getChildCount() > 0
+                        || (selectedNode instanceof LazyDocumentTreeNode && selectedNode.getAllowsChildren());
+                currentEnabled = folder || ((SpecificationNode) selectedNode.getUserObject()).isExecutable();
+
+            } else {
+                currentEnabled = type == NodeType.MODULE || type == NodeType.REPOSITORY;
+            }
+
+            if (!currentEnabled) {
+                break;
+            }
+        }
+
+        presentation.setEnabled(currentEnabled);
+    }
+
     /**
      * Sets the enabled/disabled action property for the specification nodes.
      *
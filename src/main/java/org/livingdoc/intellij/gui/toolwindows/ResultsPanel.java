@@ -0,0 +1,198 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import com.intellij.ide.browsers.BrowserLauncher;
+import com.intellij.ide.browsers.BrowserLauncherImpl;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.DoubleClickListener;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.common.I18nSupport;
+import org.livingdoc.intellij.common.Icons;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.function.Function;
+
+/**
+ * Results of the last execution in the LivingDoc tool window: one row per specification with its counts and
+ * duration.<br>
+ * The result of a specification is rendered only when its row is selected, straight from its result file, and it is
+ * dropped when another row is selected. A double click opens it in the browser.
+ */
+public class ResultsPanel extends JBSplitter {
+
+    private static final Logger LOG = Logger.getInstance(ResultsPanel.class);
+
+    private final ListTableModel<ExecutionResult> tableModel;
+    private final TableView<ExecutionResult> table;
+    private final JEditorPane viewer;
+
+
+    public ResultsPanel() {
+
+        super(false, 0.4f);
+
+        tableModel = new ListTableModel<>(new SpecificationColumn(),
+                new CountColumn("toolwindows.results.column.success", ExecutionResult::getSuccess),
+                new CountColumn("toolwindows.results.column.failures", ExecutionResult::getFailures),
+                new CountColumn("toolwindows.results.column.errors", ExecutionResult::getErrors),
+                new CountColumn("toolwindows.results.column.ignored", ExecutionResult::getIgnored),
+                new DurationColumn());
+
+        table = new TableView<>(tableModel);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getSelectionModel().addListSelectionListener(event -> {
+            if (!event.getValueIsAdjusting()) {
+                showResult(table.getSelectedObject());
+            }
+        });
+        new DoubleClickListener() {
+
+            @Override
+            protected boolean onDoubleClick(final MouseEvent event) {
+
+                ExecutionResult result = table.getSelectedObject();
+                if (result == null || result.getResultFile() == null) {
+                    return false;
+                }
+                BrowserLauncher browser = new BrowserLauncherImpl();
+                browser.open(result.getResultFile().getPath());
+                return true;
+            }
+        }.installOn(table);
+
+        viewer = new JEditorPane();
+        viewer.setEditable(false);
+        viewer.setContentType("text/html");
+
+        setFirstComponent(new JBScrollPane(table));
+        setSecondComponent(new JBScrollPane(viewer));
+    }
+
+    /**
+     * Adds the result of a specification. It can be called from any thread.
+     *
+     * @param result {@link ExecutionResult}
+     * @param select True to select and show it.
+     */
+    public void addResult(@NotNull final ExecutionResult result, final boolean select) {
+
+        SwingUtilities.invokeLater(() -> {
+            tableModel.addRow(result);
+            if (select) {
+                table.setSelection(Collections.singletonList(result));
+            }
+        });
+    }
+
+    /**
+     * Removes the results of the previous execution.
+     */
+    public void reset() {
+
+        SwingUtilities.invokeLater(() -> {
+            tableModel.setItems(new ArrayList<>());
+            showResult(null);
+        });
+    }
+
+    /**
+     * Renders the result file of the selected specification. The previous document is dropped first, and the new
+     * one is loaded by the editor kit in background.
+     */
+    private void showResult(@Nullable final ExecutionResult result) {
+
+        viewer.setDocument(viewer.getEditorKit().createDefaultDocument());
+
+        if (result == null) {
+            return;
+        }
+        File resultFile = result.getResultFile();
+        if (resultFile == null || !resultFile.exists()) {
+            viewer.setText(I18nSupport.getValue("run.execution.error.suite", result.getSpecificationName()));
+            return;
+        }
+        try {
+            viewer.setPage(resultFile.toURI().toURL());
+
+        } catch (IOException ioe) {
+            LOG.warn(ioe);
+            viewer.setText(I18nSupport.getValue("run.execution.error.no.response"));
+        }
+    }
+
+    private static final class SpecificationColumn extends ColumnInfo<ExecutionResult, String> {
+
+        private final DefaultTableCellRenderer renderer = new DefaultTableCellRenderer() {
+
+            @Override
+            public Component getTableCellRendererComponent(final JTable table, final Object value, final boolean isSelected,
+                                                           final boolean hasFocus, final int row, final int column) {
+
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                @SuppressWarnings("unchecked")
+                ExecutionResult result = ((TableView<ExecutionResult>) table).getRow(row);
+                setIcon(result.hasError() ? Icons.ERROR : Icons.SUCCESS);
+                return this;
+            }
+        };
+
+        private SpecificationColumn() {
+            super(I18nSupport.getValue("toolwindows.results.column.specification"));
+        }
+
+        @Override
+        public String valueOf(final ExecutionResult result) {
+            return result.getSpecificationName();
+        }
+
+        @Override
+        public TableCellRenderer getRenderer(final ExecutionResult result) {
+            return renderer;
+        }
+    }
+
+    private static final class CountColumn extends ColumnInfo<ExecutionResult, Integer> {
+
+        private final Function<ExecutionResult, Integer> count;
+
+        private CountColumn(final String key, final Function<ExecutionResult, Integer> count) {
+            super(I18nSupport.getValue(key));
+            this.count = count;
+        }
+
+        @Override
+        public Integer valueOf(final ExecutionResult result) {
+            return count.apply(result);
+        }
+    }
+
+    private static final class DurationColumn extends ColumnInfo<ExecutionResult, String> {
+
+        private DurationColumn() {
+            super(I18nSupport.getValue("toolwindows.results.column.duration"));
+        }
+
+        @Override
+        public String valueOf(final ExecutionResult result) {
+
+            if (result.isCached()) {
+                return I18nSupport.getValue("toolwindows.results.cached");
+            }
+            return result.getDurationMillis() >= 0 ? StringUtil.formatDuration(result.getDurationMillis()) : "";
+        }
+    }
+}
@@ -3,9 +3,8 @@ package org.livingdoc.intellij.gui.toolwindows;
 import com.intellij.execution.testframework.ui.TestStatusLine;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.actionSystem.*;
-import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.module.Module;
-import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.progress.util.ColorProgressBar;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.SimpleToolWindowPanel;
@@ -13,23 +12,27 @@ import com.intellij.ui.PopupHandler;
 import com.intellij.ui.components.JBPanel;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.treeStructure.SimpleTree;
-import org.apache.commons.lang3.StringUtils;
+import com.intellij.util.text.DateFormatUtil;
+import org.jetbrains.annotations.NotNull;
 import org.livingdoc.intellij.common.I18nSupport;
 import org.livingdoc.intellij.common.NodeType;
-import org.livingdoc.intellij.connector.LivingDocConnector;
-import org.livingdoc.intellij.domain.*;
+import org.livingdoc.intellij.domain.Node;
+import org.livingdoc.intellij.domain.ProjectSettings;
 import org.livingdoc.intellij.gui.toolwindows.action.ExecuteSpecificationAction;
 import org.livingdoc.intellij.gui.toolwindows.action.OpenRemoteDocumentAction;
 import org.livingdoc.intellij.gui.toolwindows.action.SwitchVersionAction;
 import org.livingdoc.intellij.gui.toolwindows.action.TagImplementedAction;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
+import org.livingdoc.intellij.run.ExecutionProgress;
+import org.livingdoc.intellij.run.ExecutionSession;
 
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeSelectionModel;
 import java.awt.*;
-import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -39,8 +42,6 @@ import java.util.Collection;
  */
 public class ToolWindowPanel extends SimpleToolWindowPanel {
 
-    private static final Logger LOG = Logger.getInstance(ToolWindowPanel.class);
-
     private final transient Project project;
 
     private final JBPanel mainContent;
@@ -50,8 +51,11 @@ public class ToolWindowPanel extends SimpleToolWindowPanel {
     private transient DefaultActionGroup actionGroup;
     private SimpleTree tree;
     private TestStatusLine statusLine;
-    private ExecutionCounter executionCounter;
+    private transient ExecutionSession executionSession;
+    private transient ExecutionProgress executionProgress;
+    private ResultsPanel resultsPanel;
     private transient AnAction refreshAction;
+    private transient Task.Backgroundable loadingTask;
 
 
     public ToolWindowPanel(Project project) {
@@ -68,11 +72,13 @@ public class ToolWindowPanel extends SimpleToolWindowPanel {
         createRepositoryTree();
         createActionToolBar();
         createStatusLine();
-        createExecutionCounter();
+        createExecution();
 
         configureActions();
 
-        loadRepositories();
+        if (!loadCachedRepositories()) {
+            loadRepositories();
+        }
     }
 
     public SimpleTree getRepositoryTree() {
@@ -83,17 +89,31 @@ public class ToolWindowPanel extends SimpleToolWindowPanel {
         return this.statusLine;
     }
 
-    public ExecutionCounter getExecutionCounter() {
-        return this.executionCounter;
+    /**
+     * @return The results of the current execution, see {@link #resetExecution()}.
+     */
+    public ExecutionSession getExecutionSession() {
+        return this.executionSession;
+    }
+
+    /**
+     * @return The results of the last execution, shown in their own tab of the tool window.
+     */
+    public ResultsPanel getResultsPanel() {
+        return this.resultsPanel;
+    }
+
+    public ExecutionProgress getExecutionProgress() {
+        return this.executionProgress;
     }
 
-    public void resetExecutionCounter() {
-        executionCounter.setTotalErrors(0);
-        executionCounter.setFailuresCount(0);
-        executionCounter.setFinishedTestsCount(0);
-        executionCounter.setIgnoreTestsCount(0);
-        executionCounter.setStartTime(0);
-        executionCounter.setEndTime(0);
+    /**
+     * Starts a new execution. The processes of the previous one keep adding their results to its own session.
+     */
+    public void resetExecution() {
+        executionProgress.reset();
+        resultsPanel.reset();
+        executionSession = new ExecutionSession();
     }
 
     public AnAction getRefreshAction() {
@@ -122,6 +142,24 @@ public class ToolWindowPanel extends SimpleToolWindowPanel {
         treeModel = new DefaultTreeModel(rootNode, true);
         tree.setModel(treeModel);
 
+        // The documents of a folder are painted when it is expanded for the first time.
+        tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+
+            @Override
+            public void treeWillExpand(final TreeExpansionEvent event) {
+
+                Object treeNode = event.getPath().getLastPathComponent();
+                if (treeNode instanceof LazyDocumentTreeNode) {
+                    ((LazyDocumentTreeNode) treeNode).loadChildren(treeModel);
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(final TreeExpansionEvent event) {
+                // Painted nodes are kept.
+            }
+        });
+
         JBScrollPane scrollPane = new JBScrollPane(tree);
         mainContent.add(scrollPane, BorderLayout.CENTER);
     }
@@ -140,15 +178,10 @@ public class ToolWindowPanel extends SimpleToolWindowPanel {
         statusLine.setFraction(0d);
     }
 
-    private void createExecutionCounter() {
-        executionCounter = new ExecutionCounter();
-    }
-
-    private void resetTree(Node newRootNode) {
-        rootNode.removeAllChildren();
-        rootNode.setUserObject(newRootNode);
-
-        resetStatusLine();
+    private void createExecution() {
+        executionSession = new ExecutionSession();
+        executionProgress = new ExecutionProgress(statusLine, tree::repaint);
+        resultsPanel = new ResultsPanel();
     }
 
     private void configureActions() {
@@ -204,8 +237,6 @@ public class ToolWindowPanel extends SimpleToolWindowPanel {
             @Override
             public void actionPerformed(AnActionEvent anActionEvent) {
 
-                resetTree(getDefaultRootNode());
-
                 loadRepositories();
             }
         };
@@ -215,60 +246,84 @@ public class ToolWindowPanel extends SimpleToolWindowPanel {
         actionGroup.add(refreshAction);
     }
 
+    /**
+     * Loads the repositories in background and merges them into the tree on the Event Dispatch Thread.<br>
+     * Whether a load is already running, it is reused instead of starting another one.
+     */
     private void loadRepositories() {
 
-        for (Module module : ModuleManager.getInstance(project).getModules()) {
+        if (loadingTask != null) {
+            return;
+        }
 
-            ModuleSettings moduleSettings = ModuleSettings.getInstance(module);
-            if (moduleSettings.isLivingDocEnabled()) {
+        loadingTask = new Task.Backgroundable(project, I18nSupport.getValue("toolwindows.progress.title"), true) {
 
-                ModuleNode moduleNode = new ModuleNode(
-                        module.getName() + " [" + StringUtils.defaultIfBlank(moduleSettings.getSud(),
-                                I18nSupport.getValue("toolwindows.error.loading.repositories.noproject")) + "]",
-                        module.getName());
-                moduleNode.setSystemUnderTest(moduleSettings.getSud());
-                moduleNode.setProject(moduleSettings.getProject());
+            private List<DefaultMutableTreeNode> moduleTreeNodes;
 
-                DefaultMutableTreeNode moduleTreeNode = new DefaultMutableTreeNode(moduleNode);
-                rootNode.add(moduleTreeNode);
+            @Override
+            public void run(@NotNull final ProgressIndicator indicator) {
+                moduleTreeNodes = new RepositoryTreeLoader(project).loadModules(indicator);
+            }
 
-                loadSystemUnderTests(moduleNode, moduleTreeNode);
+            @Override
+            public void onSuccess() {
+                resetStatusLine();
+                mergeRepositories(moduleTreeNodes);
             }
-        }
-        treeModel.reload();
-    }
 
-    private void loadSystemUnderTests(ModuleNode moduleNode, DefaultMutableTreeNode moduleTreeNode) {
+            @Override
+            public void onCancel() {
+                statusLine.setText(I18nSupport.getValue("toolwindows.progress.cancelled"));
+            }
 
-        LivingDocConnector livingDocConnector = LivingDocConnector.newInstance(ProjectSettings.getInstance(project));
+            @Override
+            public void onFinished() {
+                if (loadingTask == this) {
+                    loadingTask = null;
+                }
+            }
+        };
+        loadingTask.queue();
+    }
 
-        try {
-            Collection<RepositoryNode> repositories = livingDocConnector.getRepositoriesForSystemUnderTest(moduleNode);
+    /**
+     * Paints the tree from the snapshots of the last load. Whether they are older than
+     * {@link ProjectSettings#getTreeCacheTtlMinutes()}, the tree is loaded again in background.
+     *
+     * @return False whether there is no complete snapshot of the tree.
+     */
+    private boolean loadCachedRepositories() {
 
-            for (RepositoryNode repositoryNode : repositories) {
+        RepositoryTreeLoader loader = new RepositoryTreeLoader(project);
+        List<DefaultMutableTreeNode> moduleTreeNodes = loader.loadCachedModules();
 
-                repositoryNode.setParent(moduleNode);
+        if (moduleTreeNodes == null) {
+            return false;
+        }
+        moduleTreeNodes.forEach(rootNode::add);
+        treeModel.reload();
 
-                DefaultMutableTreeNode childNode = new DefaultMutableTreeNode(repositoryNode);
-                moduleTreeNode.add(childNode);
+        String cacheDate = DateFormatUtil.formatPrettyDateTime(loader.getCacheTimestamp());
+        long ttl = TimeUnit.MINUTES.toMillis(ProjectSettings.getInstance(project).getTreeCacheTtlMinutes());
 
-                livingDocConnector.buildfSpecificationHierarchy(repositoryNode, moduleNode, childNode);
-            }
-        } catch (LivingDocException lde) {
-            LOG.error(lde);
-            resetTree(RepositoryViewUtils.getErrorNode(I18nSupport.getValue("toolwindows.error.loading.repositories")
-                    + lde.getMessage()));
-
-        } catch (HttpClientErrorException hcee) {
-            LOG.warn(hcee);
-            resetTree(RepositoryViewUtils.getErrorNode(I18nSupport.getValue("toolwindows.error.loading.repositories.unauthorized")
-                    + hcee.getMessage()));
-
-        } catch (HttpServerErrorException hsee) {
-            LOG.error(hsee);
-            resetTree(RepositoryViewUtils.getErrorNode(I18nSupport.getValue("toolwindows.error.loading.repositories.internal")
-                    + hsee.getMessage()));
+        if (System.currentTimeMillis() - loader.getCacheTimestamp() < ttl) {
+            statusLine.setText(I18nSupport.getValue("toolwindows.cache.fresh", cacheDate));
+
+        } else {
+            statusLine.setText(I18nSupport.getValue("toolwindows.cache.stale", cacheDate));
+            loadRepositories();
         }
+        return true;
+    }
+
+    /**
+     * Applies only the differences with the current tree, so the expanded and selected nodes and the result icons
+     * are kept.
+     *
+     * @see RepositoryTreeMerger
+     */
+    private void mergeRepositories(final List<DefaultMutableTreeNode> moduleTreeNodes) {
+        new RepositoryTreeMerger(treeModel).merge(rootNode, moduleTreeNodes);
     }
 
     private Node getDefaultRootNode() {
@@ -12,20 +12,36 @@ import com.intellij.icons.AllIcons;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.Presentation;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.livingdoc.intellij.common.I18nSupport;
 import org.livingdoc.intellij.connector.LivingDocConnector;
+import org.livingdoc.intellij.connector.LivingDocConnectorService;
 import org.livingdoc.intellij.core.ConfigurationTypeLivingDoc;
 import org.livingdoc.intellij.domain.*;
+import org.livingdoc.intellij.gui.toolwindows.ExecutableSpecificationIterator;
+import org.livingdoc.intellij.gui.toolwindows.ExecutionRollup;
 import org.livingdoc.intellij.gui.toolwindows.RepositoryViewUtils;
 import org.livingdoc.intellij.gui.toolwindows.ToolWindowPanel;
+import org.livingdoc.intellij.run.DurationEstimator;
+import org.livingdoc.intellij.run.FilesManager;
 import org.livingdoc.intellij.run.RemoteRunConfiguration;
+import org.livingdoc.intellij.run.SuiteScheduler;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * LivingDoc execution on selected node (specification).
@@ -38,6 +54,11 @@ public class ExecuteSpecificationAction extends AnAction {
 
     private static final Logger LOG = Logger.getInstance(ExecuteSpecificationAction.class);
 
+    /**
+     * Number of specifications queued in each slice of the event dispatch thread.
+     */
+    private static final int FEED_BATCH_SIZE = 50;
+
     @NotNull
     private final ToolWindowPanel toolWindowPanel;
     private boolean debugMode = false;
@@ -77,45 +98,190 @@ public class ExecuteSpecificationAction extends AnAction {
 
 
     /**
-     * Action handler. Only specification nodes will be executed.<br>
+     * Action handler. The executable specifications of the selected nodes will be executed, including the ones under
+     * the selected modules, repositories and folders.<br>
+     * Whether the suite execution is enabled, the specifications of the same module run in a few worker JVMs. They
+     * are queued while the tree is walked, so the first ones are running before all of them have been found, and
+     * their results are rolled up to the selected nodes.
      *
      * @param actionEvent Carries information on the invocation place
      */
     @Override
     public void actionPerformed(AnActionEvent actionEvent) {
 
-        toolWindowPanel.resetExecutionCounter();
+        toolWindowPanel.resetExecution();
 
         DefaultMutableTreeNode[] nodes = toolWindowPanel.getRepositoryTree().getSelectedNodes(DefaultMutableTreeNode.class, null);
         Project project = actionEvent.getProject();
         assert project != null;
+        FilesManager.cleanUp(project);
+
+        Executor executor = debugMode ? DefaultDebugExecutor.getDebugExecutorInstance() : DefaultRunExecutor.getRunExecutorInstance();
+        ProjectSettings projectSettings = ProjectSettings.getInstance(project);
+        DefaultTreeModel treeModel = (DefaultTreeModel) toolWindowPanel.getRepositoryTree().getModel();
+
+        Map<String, List<DefaultMutableTreeNode>> nodesByModule = groupByModule(removeNestedNodes(nodes));
+
+        if (!projectSettings.isSuiteExecution()) {
+            for (List<DefaultMutableTreeNode> moduleNodes : nodesByModule.values()) {
+                SpecificationStream stream = new SpecificationStream(moduleNodes, treeModel, null);
+                for (SpecificationNode specificationNode = stream.next(); specificationNode != null; specificationNode = stream.next()) {
+                    toolWindowPanel.getExecutionProgress().specificationQueued();
+                    runSpecification(executor, createRunConfiguration(project, specificationNode));
+                }
+            }
+            return;
+        }
+
+        // The first specifications of each module tell how to share out the workers among the modules.
+        int maxWorkers = SuiteScheduler.getWorkerCount(projectSettings.getExecutionWorkers(), Integer.MAX_VALUE);
+        List<SpecificationStream> streams = new ArrayList<>();
+        int totalHeads = 0;
+
+        for (List<DefaultMutableTreeNode> moduleNodes : nodesByModule.values()) {
+
+            ExecutionRollup rollup = new ExecutionRollup(treeModel);
+            SpecificationStream stream = new SpecificationStream(moduleNodes, treeModel, rollup);
+            stream.readHead(maxWorkers);
+
+            if (!stream.head.isEmpty()) {
+                streams.add(stream);
+                totalHeads += stream.head.size();
+            }
+        }
+
+        for (SpecificationStream stream : streams) {
+
+            int workers = SuiteScheduler.getWorkerCount(Math.max(1, maxWorkers * stream.head.size() / totalHeads), stream.head.size());
+            SuiteScheduler suiteScheduler = new SuiteScheduler(workers);
+            suiteScheduler.setListener(stream.rollup);
+
+            for (RunnerAndConfigurationSettings worker : createSuiteWorkers(project, stream, suiteScheduler, workers)) {
+                runSpecification(executor, worker);
+            }
+            feedSuite(project, stream, suiteScheduler, new DurationEstimator(project));
+        }
+    }
+
+    /**
+     * Queues the next specifications of the stream with their expected duration, and goes on later in the event
+     * dispatch thread until the stream ends, so the tree is walked without blocking the user interface. The expected
+     * durations are computed on a pooled thread: they read the execution history and the cached documents.
+     */
+    private void feedSuite(@NotNull final Project project, @NotNull final SpecificationStream stream,
+                           @NotNull final SuiteScheduler suiteScheduler, @NotNull final DurationEstimator durationEstimator) {
+
+        List<RemoteRunConfiguration> batch = new ArrayList<>(FEED_BATCH_SIZE);
+        SpecificationNode specificationNode = null;
+        while (batch.size() < FEED_BATCH_SIZE) {
+
+            specificationNode = project.isDisposed() ? null : stream.next();
+            if (specificationNode == null) {
+                break;
+            }
+            batch.add((RemoteRunConfiguration) createRunConfiguration(project, specificationNode).getConfiguration());
+        }
+        final boolean streamEnded = specificationNode == null;
 
-        RunManager runManager = RunManager.getInstance(project);
-        ConfigurationTypeLivingDoc livingDocConfigurationType = ConfigurationTypeLivingDoc.getInstance();
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+
+            for (RemoteRunConfiguration specification : batch) {
+                if (!suiteScheduler.add(specification, durationEstimator.getExpectedMillis(specification))) {
+                    // All the workers have ended.
+                    return;
+                }
+                toolWindowPanel.getExecutionProgress().specificationQueued();
+            }
+            if (streamEnded) {
+                suiteScheduler.close();
+            } else {
+                SwingUtilities.invokeLater(() -> feedSuite(project, stream, suiteScheduler, durationEstimator));
+            }
+        });
+    }
+
+    /**
+     * @return The selected nodes without the ones under another selected node.
+     */
+    private static List<DefaultMutableTreeNode> removeNestedNodes(final DefaultMutableTreeNode[] nodes) {
+
+        List<DefaultMutableTreeNode> topNodes = new ArrayList<>(nodes.length);
+        for (DefaultMutableTreeNode node : nodes) {
+            if (Arrays.stream(nodes).noneMatch(other -> other != node && other.isNodeDescendant(node))) {
+                topNodes.add(node);
+            }
+        }
+        return topNodes;
+    }
+
+    /**
+     * @return The nodes by module name, in selection order.
+     */
+    private static Map<String, List<DefaultMutableTreeNode>> groupByModule(final List<DefaultMutableTreeNode> nodes) {
+
+        Map<String, List<DefaultMutableTreeNode>> nodesByModule = new LinkedHashMap<>();
 
         for (DefaultMutableTreeNode selectedNode : nodes) {
 
             Object userObject = selectedNode.getUserObject();
 
-            if (userObject instanceof SpecificationNode) {
+            if (userObject instanceof ModuleNode || userObject instanceof RepositoryNode || userObject instanceof SpecificationNode) {
+
+                ModuleNode moduleNode = userObject instanceof ModuleNode
+                        ? (ModuleNode) userObject : RepositoryViewUtils.getModuleNode((Node) userObject);
+                nodesByModule.computeIfAbsent(moduleNode.getModuleName(), key -> new ArrayList<>()).add(selectedNode);
+            }
+        }
+        return nodesByModule;
+    }
+
+    private RunnerAndConfigurationSettings createRunConfiguration(@NotNull final Project project,
+                                                                  @NotNull final SpecificationNode specificationNode) {
 
-                SpecificationNode specificationNode = (SpecificationNode) userObject;
+        RunnerAndConfigurationSettings runnerAndConfigurationSettings = RunManager.getInstance(project).createRunConfiguration(
+                project.getName(), ConfigurationTypeLivingDoc.getInstance().getConfigurationFactories()[0]);
 
-                RunnerAndConfigurationSettings runnerAndConfigurationSettings = runManager.createRunConfiguration(project.getName(), livingDocConfigurationType.getConfigurationFactories()[0]);
+        fillRunnerAndConfigurationSettings(runnerAndConfigurationSettings, debugMode, specificationNode.getNodeName());
 
+        RemoteRunConfiguration runConfiguration =
+                (RemoteRunConfiguration) runnerAndConfigurationSettings.getConfiguration();
 
-                fillRunnerAndConfigurationSettings(runnerAndConfigurationSettings, debugMode, specificationNode);
+        fillRunConfigurationForSpecificationNode(runConfiguration, specificationNode);
 
-                RemoteRunConfiguration runConfiguration =
-                        (RemoteRunConfiguration) runnerAndConfigurationSettings.getConfiguration();
+        return runnerAndConfigurationSettings;
+    }
 
-                fillRunConfigurationForSpecificationNode(runConfiguration, specificationNode);
+    /**
+     * A suite runs the specifications of a module in a few worker JVMs that take them from a shared
+     * {@link SuiteScheduler}. Every worker has the settings of the first specification.
+     */
+    private List<RunnerAndConfigurationSettings> createSuiteWorkers(@NotNull final Project project,
+                                                                    @NotNull final SpecificationStream stream,
+                                                                    @NotNull final SuiteScheduler suiteScheduler,
+                                                                    final int workers) {
 
-                Executor executor = debugMode ? DefaultDebugExecutor.getDebugExecutorInstance() : DefaultRunExecutor.getRunExecutorInstance();
+        SpecificationNode firstSpecification = stream.head.get(0);
+        String suiteName = stream.roots.size() == 1
+                ? ((Node) stream.roots.get(0).getUserObject()).getNodeName()
+                : RepositoryViewUtils.getModuleNode(firstSpecification).getModuleName();
 
-                runSpecification(executor, runnerAndConfigurationSettings);
+        List<RunnerAndConfigurationSettings> workerSettings = new ArrayList<>(workers);
+        for (int worker = 1; worker <= workers; worker++) {
+
+            RunnerAndConfigurationSettings runnerAndConfigurationSettings = createRunConfiguration(project, firstSpecification);
+
+            if (workers > 1) {
+                runnerAndConfigurationSettings.setName(I18nSupport.getValue("run.configuration.suite.worker.name", suiteName, worker));
+            } else if (stream.isSuite()) {
+                runnerAndConfigurationSettings.setName(I18nSupport.getValue("run.configuration.suite.name", suiteName));
             }
+            // The run configuration user interface edits a single specification.
+            runnerAndConfigurationSettings.setEditBeforeRun(false);
+
+            ((RemoteRunConfiguration) runnerAndConfigurationSettings.getConfiguration()).setSuiteScheduler(suiteScheduler);
+            workerSettings.add(runnerAndConfigurationSettings);
         }
+        return workerSettings;
     }
 
     private void runSpecification(Executor executor, RunnerAndConfigurationSettings runnerAndConfigurationSettings) {
@@ -129,7 +295,7 @@ public class ExecuteSpecificationAction extends AnAction {
     }
 
     /**
-     * This action will be enabled only for executable nodes
+     * This action will be enabled only for executable nodes and the nodes that can contain them
      *
      * @param actionEvent Carries information on the invocation place
      */
@@ -140,7 +306,7 @@ public class ExecuteSpecificationAction extends AnAction {
 
         DefaultMutableTreeNode[] selectedNodes = toolWindowPanel.getRepositoryTree().getSelectedNodes(DefaultMutableTreeNode.class, null);
 
-        RepositoryViewUtils.setEnabledForExecutableNode(selectedNodes, actionEvent.getPresentation());
+        RepositoryViewUtils.setEnabledForExecutionNode(selectedNodes, actionEvent.getPresentation());
     }
 
     private void fillRunConfigurationForSpecificationNode(@NotNull final RemoteRunConfiguration runConfiguration, final SpecificationNode specificationNode) {
@@ -158,11 +324,13 @@ public class ExecuteSpecificationAction extends AnAction {
         runConfiguration.setCurrentVersion(specificationNode.isUsingCurrentVersion());
         runConfiguration.setRepositoryName(repositoryNode.getName());
 
-        LivingDocConnector livingDocConnector = LivingDocConnector.newInstance(ProjectSettings.getInstance(runConfiguration.getProject()));
+        LivingDocConnector livingDocConnector = LivingDocConnectorService.getInstance(runConfiguration.getProject()).getConnector();
         runConfiguration.MAIN_CLASS_NAME = livingDocConnector.getLivingDocMainClass();
 
         runConfiguration.setStatusLine(toolWindowPanel.getStatusLine());
-        runConfiguration.setExecutionCounter(toolWindowPanel.getExecutionCounter());
+        runConfiguration.setExecutionSession(toolWindowPanel.getExecutionSession());
+        runConfiguration.setExecutionProgress(toolWindowPanel.getExecutionProgress());
+        runConfiguration.setResultsPanel(toolWindowPanel.getResultsPanel());
         runConfiguration.setSelectedNode(specificationNode);
 
         runConfiguration.setShowConsoleOnStdOut(true);
@@ -181,7 +349,7 @@ public class ExecuteSpecificationAction extends AnAction {
     }
 
     private void fillRunnerAndConfigurationSettings(@NotNull final RunnerAndConfigurationSettings runnerAndConfigurationSettings,
-                                                    final boolean debugMode, @NotNull final SpecificationNode specificationNode) {
+                                                    final boolean debugMode, @NotNull final String name) {
 
         runnerAndConfigurationSettings.setTemporary(false);
 
@@ -190,6 +358,86 @@ public class ExecuteSpecificationAction extends AnAction {
 
         // True to show the "run configuration UI" before launching LivingDoc
         runnerAndConfigurationSettings.setEditBeforeRun(debugMode);
-        runnerAndConfigurationSettings.setName(specificationNode.getNodeName());
+        runnerAndConfigurationSettings.setName(name);
+    }
+
+    /**
+     * The executable specifications under the selected nodes of a module, found while they are read.
+     */
+    private static final class SpecificationStream {
+
+        private final List<DefaultMutableTreeNode> roots;
+        private final DefaultTreeModel treeModel;
+        private final ExecutionRollup rollup;
+
+        /**
+         * The first specifications, read before the workers are started.
+         */
+        private final List<SpecificationNode> head = new ArrayList<>();
+        private int headIndex = 0;
+
+        private int rootIndex = -1;
+        private Iterator<SpecificationNode> specifications = Collections.emptyIterator();
+        private ExecutionRollup.Container container;
+
+        private SpecificationStream(final List<DefaultMutableTreeNode> roots, final DefaultTreeModel treeModel,
+                                    @Nullable final ExecutionRollup rollup) {
+            this.roots = roots;
+            this.treeModel = treeModel;
+            this.rollup = rollup;
+        }
+
+        /**
+         * Reads the first specifications, up to one more than the limit.
+         */
+        private void readHead(final int limit) {
+
+            for (SpecificationNode specificationNode = read(); specificationNode != null; specificationNode = read()) {
+                head.add(specificationNode);
+                if (head.size() > limit) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return True whether the stream has more than one specification, or a selected node is not a specification.
+         */
+        private boolean isSuite() {
+            return head.size() > 1 || roots.size() > 1 || !(roots.get(0).getUserObject() instanceof SpecificationNode);
+        }
+
+        @Nullable
+        private SpecificationNode next() {
+            return headIndex < head.size() ? head.get(headIndex++) : read();
+        }
+
+        @Nullable
+        private SpecificationNode read() {
+
+            while (!specifications.hasNext()) {
+
+                if (container != null) {
+                    container.enumerated();
+                    container = null;
+                }
+                if (++rootIndex >= roots.size()) {
+                    return null;
+                }
+                DefaultMutableTreeNode root = roots.get(rootIndex);
+                specifications = new ExecutableSpecificationIterator(root, treeModel);
+
+                // A selected specification shows its own result.
+                boolean specificationRoot = root.getUserObject() instanceof SpecificationNode
+                        && ((SpecificationNode) root.getUserObject()).isExecutable();
+                container = rollup == null || specificationRoot ? null : rollup.addContainer(root);
+            }
+
+            SpecificationNode specificationNode = specifications.next();
+            if (container != null) {
+                container.add(specificationNode);
+            }
+            return specificationNode;
+        }
     }
 }
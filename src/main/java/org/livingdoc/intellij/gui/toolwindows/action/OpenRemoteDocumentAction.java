@@ -9,8 +9,8 @@ import com.intellij.ui.treeStructure.SimpleTree;
 import org.livingdoc.intellij.common.I18nSupport;
 import org.livingdoc.intellij.common.NodeType;
 import org.livingdoc.intellij.connector.LivingDocConnector;
+import org.livingdoc.intellij.connector.LivingDocConnectorService;
 import org.livingdoc.intellij.domain.Node;
-import org.livingdoc.intellij.domain.ProjectSettings;
 import org.livingdoc.intellij.domain.RepositoryNode;
 import org.livingdoc.intellij.domain.SpecificationNode;
 import org.livingdoc.intellij.gui.toolwindows.RepositoryViewUtils;
@@ -60,13 +60,13 @@ public class OpenRemoteDocumentAction extends AnAction {
             RepositoryNode repositoryNode = RepositoryViewUtils.getRepositoryNode(specificationNode);
 
             BrowserLauncher browser = new BrowserLauncherImpl();
+            LivingDocConnector livingDocConnector = LivingDocConnectorService.getInstance(actionEvent.getProject()).getConnector();
 
             for (DefaultMutableTreeNode selectedNode : selectedNodes) {
 
                 userObject = selectedNode.getUserObject();
                 specificationNode = (SpecificationNode) userObject;
 
-                LivingDocConnector livingDocConnector = LivingDocConnector.newInstance(ProjectSettings.getInstance(actionEvent.getProject()));
                 String url = livingDocConnector.getSpecificationRemoteUrl(specificationNode, repositoryNode);
 
                 browser.open(url);
@@ -1,22 +1,40 @@
 package org.livingdoc.intellij.gui.toolwindows.action;
 
 import com.intellij.icons.AllIcons;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
 import com.intellij.ui.treeStructure.SimpleTree;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.livingdoc.intellij.common.I18nSupport;
 import org.livingdoc.intellij.common.Icons;
+import org.livingdoc.intellij.common.PluginProperties;
 import org.livingdoc.intellij.connector.LivingDocConnector;
+import org.livingdoc.intellij.connector.LivingDocConnectorService;
 import org.livingdoc.intellij.domain.LivingDocException;
-import org.livingdoc.intellij.domain.ProjectSettings;
 import org.livingdoc.intellij.domain.SpecificationNode;
 import org.livingdoc.intellij.gui.toolwindows.RepositoryViewUtils;
 
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * The action sets the selected(s) document as implemented in the remote server.<br>
+ * The calls run concurrently in a background task (<code>livingdoc.executor.tag.threads</code> in
+ * <b>config.properties</b>) and a summary is notified at the end.<br>
  * See {@link #update(AnActionEvent)} for the display restrictions.
  *
  * @see AnAction
@@ -25,6 +43,8 @@ public class TagImplementedAction extends AnAction {
 
     private static final Logger LOG = Logger.getInstance(TagImplementedAction.class);
 
+    private static final long UPDATE_INTERVAL_MILLIS = 250L;
+
     private final SimpleTree repositoryTree;
 
 
@@ -41,33 +61,71 @@ public class TagImplementedAction extends AnAction {
     }
 
     /**
-     * Action handler.
+     * Action handler. The documents are tagged in a background task and the tree is updated in batches.
      *
      * @param anActionEvent Carries information on the invocation place
      */
     @Override
     public void actionPerformed(AnActionEvent anActionEvent) {
 
+        Project project = anActionEvent.getProject();
         DefaultMutableTreeNode[] nodes = repositoryTree.getSelectedNodes(DefaultMutableTreeNode.class, null);
 
+        Map<SpecificationNode, DefaultMutableTreeNode> treeNodes = new LinkedHashMap<>();
         for (DefaultMutableTreeNode selectedNode : nodes) {
-            Object userObject = selectedNode.getUserObject();
-            SpecificationNode specificationNode = (SpecificationNode) userObject;
+            treeNodes.put((SpecificationNode) selectedNode.getUserObject(), selectedNode);
+        }
+        repositoryTree.getSelectionModel().clearSelection();
+
+        LivingDocConnector livingDocConnector = LivingDocConnectorService.getInstance(project).getConnector();
+
+        new Task.Backgroundable(project, I18nSupport.getValue("toolwindows.action.tag.tooltip"), true) {
+
+            private Map<SpecificationNode, LivingDocException> errors = Collections.emptyMap();
+
+            @Override
+            public void run(@NotNull final ProgressIndicator indicator) {
+
+                indicator.setIndeterminate(false);
+                TreeUpdater treeUpdater = new TreeUpdater(treeNodes);
+
+                try {
+                    errors = livingDocConnector.tagDocumentsAsImplemented(new ArrayList<>(treeNodes.keySet()),
+                            Integer.parseInt(PluginProperties.getValue("livingdoc.executor.tag.threads")),
+                            new LivingDocConnector.TagListener() {
+
+                                private int finished;
+
+                                @Override
+                                public void tagged(@NotNull final SpecificationNode specificationNode,
+                                                   @Nullable final LivingDocException error) {
 
-            try {
-                LivingDocConnector livingDocConnector = LivingDocConnector.newInstance(ProjectSettings.getInstance(anActionEvent.getProject()));
-                livingDocConnector.tagDocumentAsImplemented(specificationNode);
+                                    finished++;
+                                    indicator.setText2(specificationNode.getNodeName());
+                                    indicator.setFraction((double) finished / treeNodes.size());
+                                    treeUpdater.add(specificationNode, error);
+                                }
 
-                specificationNode.setUsingCurrentVersion(false);
-                specificationNode.setCanBeImplemented(false);
-                specificationNode.setIcon(Icons.EXECUTABLE);
+                                @Override
+                                public void checkCanceled() {
+                                    indicator.checkCanceled();
+                                }
+                            });
 
-            } catch (LivingDocException lde) {
-                LOG.error(lde);
-                selectedNode.setUserObject(RepositoryViewUtils.getErrorNode(specificationNode.getNodeName() + " (" + lde.getMessage() + ")"));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new ProcessCanceledException(ie);
+
+                } finally {
+                    treeUpdater.flush();
+                }
             }
-        }
-        repositoryTree.getSelectionModel().clearSelection();
+
+            @Override
+            public void onSuccess() {
+                notifySummary(project, treeNodes.size(), errors);
+            }
+        }.queue();
     }
 
     /**
@@ -83,4 +141,74 @@ public class TagImplementedAction extends AnAction {
         DefaultMutableTreeNode[] selectedNodes = repositoryTree.getSelectedNodes(DefaultMutableTreeNode.class, null);
         RepositoryViewUtils.setEnabledForNodeVersion(selectedNodes, anActionEvent.getPresentation(), false);
     }
+
+    private static void notifySummary(final Project project, final int total,
+                                      final Map<SpecificationNode, LivingDocException> errors) {
+
+        StringBuilder content = new StringBuilder(I18nSupport.getValue("toolwindows.action.tag.summary",
+                total - errors.size(), total));
+
+        errors.forEach((specificationNode, error) -> content.append("<br>")
+                .append(specificationNode.getNodeName()).append(": ").append(error.getMessage()));
+
+        Notifications.Bus.notify(new Notification(PluginProperties.getValue("toolwindows.id"),
+                I18nSupport.getValue("toolwindows.action.tag.tooltip"), content.toString(),
+                errors.isEmpty() ? NotificationType.INFORMATION : NotificationType.WARNING), project);
+    }
+
+    /**
+     * Applies the results to the tree on the Event Dispatch Thread, at most once every
+     * {@link #UPDATE_INTERVAL_MILLIS} milliseconds.
+     */
+    private class TreeUpdater {
+
+        private final Map<SpecificationNode, DefaultMutableTreeNode> treeNodes;
+        private final Map<SpecificationNode, LivingDocException> pending = new LinkedHashMap<>();
+        private long lastFlush = System.currentTimeMillis();
+
+
+        TreeUpdater(final Map<SpecificationNode, DefaultMutableTreeNode> treeNodes) {
+            this.treeNodes = treeNodes;
+        }
+
+        void add(final SpecificationNode specificationNode, final LivingDocException error) {
+
+            pending.put(specificationNode, error);
+
+            if (System.currentTimeMillis() - lastFlush >= UPDATE_INTERVAL_MILLIS) {
+                flush();
+            }
+        }
+
+        void flush() {
+
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<SpecificationNode, LivingDocException> batch = new LinkedHashMap<>(pending);
+            pending.clear();
+            lastFlush = System.currentTimeMillis();
+
+            ApplicationManager.getApplication().invokeLater(() -> {
+
+                DefaultTreeModel treeModel = (DefaultTreeModel) repositoryTree.getModel();
+
+                batch.forEach((specificationNode, error) -> {
+
+                    DefaultMutableTreeNode treeNode = treeNodes.get(specificationNode);
+
+                    if (error == null) {
+                        specificationNode.setUsingCurrentVersion(false);
+                        specificationNode.setCanBeImplemented(false);
+                        specificationNode.setIcon(Icons.EXECUTABLE);
+
+                    } else {
+                        LOG.error(error);
+                        treeNode.setUserObject(RepositoryViewUtils.getErrorNode(specificationNode.getNodeName() + " (" + error.getMessage() + ")"));
+                    }
+                    treeModel.nodeChanged(treeNode);
+                });
+            });
+        }
+    }
 }
@@ -0,0 +1,321 @@
+package org.livingdoc.intellij.run;
+
+import com.intellij.execution.configurations.JavaParameters;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.util.lang.JavaVersion;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.common.PluginProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application Class-Data Sharing archives of the runner JVMs, stored under the IDE system directory.<br>
+ * An archive is kept for each runner classpath fingerprint: the JDK, and the path, size and modification time of the
+ * classpath entries. The first runner of a fingerprint is the training run: it dumps the classes it has loaded when it
+ * exits (<code>-XX:ArchiveClassesAtExit</code>). The next runners of the fingerprint map them from the archive
+ * (<code>-XX:SharedArchiveFile</code>) instead of loading them again. A changed classpath has another fingerprint, so
+ * its runners train a new archive; the unused ones are removed after <code>livingdoc.cds.max.age.days</code>.<br>
+ * The dynamic archives need a JDK 13 or later, and a classpath of jars only: the JVM cannot dump the classes of a
+ * non-empty directory, like the output directory of a module. The other runners are started as before, and the reason
+ * is logged. As module classpaths mostly have such directories, the archives are disabled by default in the project
+ * settings.<br>
+ * The JVM startup of the suite workers with and without archive is measured and logged, to see the effect. The
+ * single runs are not measured: their runner reports nothing before its specification has finished.<br>
+ * NOTE: The settings are configured in <b>config.properties</b>
+ */
+final class ClassDataSharing {
+
+    private static final Logger LOG = Logger.getInstance(ClassDataSharing.class);
+
+    private static final int MIN_FEATURE_VERSION = 13;
+    private static final String ARCHIVE = ".jsa";
+    private static final String TRAINING = ".training";
+    private static final String[] OPTIONS = {"-Xshare", "-XX:SharedArchiveFile", "-XX:ArchiveClassesAtExit"};
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private static ClassDataSharing instance;
+
+    private final File directory;
+    private final Set<String> trainings = new HashSet<>();
+    private final Map<String, Integer> failedTrainings = new HashMap<>();
+    private final Map<Mode, Startup> startups = new EnumMap<>(Mode.class);
+
+
+    ClassDataSharing(@NotNull final File directory) {
+
+        this.directory = directory;
+        for (Mode mode : Mode.values()) {
+            startups.put(mode, new Startup());
+        }
+    }
+
+    static synchronized ClassDataSharing getInstance() {
+
+        if (instance == null) {
+            instance = new ClassDataSharing(new File(PathManager.getSystemPath(), PluginProperties.getValue("livingdoc.dir.cds")));
+        }
+        return instance;
+    }
+
+    /**
+     * Adds the archive options to the parameters of a runner, whether its JDK and its classpath support them and the
+     * user has not set Class-Data Sharing options already.
+     *
+     * @param javaParameters Parameters of the runner, with its JDK and its complete classpath.
+     * @return How the runner uses the archive of its classpath.
+     */
+    @NotNull
+    Launch configure(@NotNull final JavaParameters javaParameters) {
+
+        Sdk jdk = javaParameters.getJdk();
+        if (jdk == null || jdk.getHomePath() == null || !isSupported(jdk.getVersionString())) {
+            return skipped("the JDK " + (jdk == null ? null : jdk.getVersionString()) + " has no dynamic archive, "
+                    + MIN_FEATURE_VERSION + " or later is needed.");
+        }
+        if (javaParameters.getVMParametersList().getList().stream().anyMatch(ClassDataSharing::isOption)) {
+            return skipped("the VM options already set Class-Data Sharing.");
+        }
+        List<String> classPath = javaParameters.getClassPath().getPathList();
+        if (!isArchivable(ModuleParametersCache.expandClasspathJars(classPath))) {
+            return skipped("the classpath has directories, like the output directory of a module.");
+        }
+        String fingerprint = getFingerprint(jdk.getHomePath(), jdk.getVersionString(), classPath);
+        File archive = new File(directory, fingerprint + ARCHIVE);
+
+        if (archive.isFile()) {
+            // Keeps the archives in use from being removed as unused.
+            if (!archive.setLastModified(System.currentTimeMillis())) {
+                LOG.debug("The archive " + archive.getName() + " has not been touched.");
+            }
+            javaParameters.getVMParametersList().add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+            javaParameters.getVMParametersList().add("-Xshare:auto");
+            return new Launch(Mode.SHARED, fingerprint, null);
+        }
+
+        synchronized (this) {
+            int maxTrainings = Integer.parseInt(PluginProperties.getValue("livingdoc.cds.max.trainings"));
+            if (failedTrainings.getOrDefault(fingerprint, 0) >= maxTrainings) {
+                return skipped("the archive of the classpath has failed " + maxTrainings + " trainings.");
+            }
+            if (!trainings.add(fingerprint)) {
+                // A single runner trains the archive of a classpath.
+                return skipped("another runner trains the archive of the classpath.");
+            }
+        }
+        try {
+            Files.createDirectories(directory.toPath());
+        } catch (IOException ioe) {
+            LOG.warn("The archive directory " + directory.getName() + " has not been created.", ioe);
+            trainingEnded(fingerprint, null);
+            return Launch.NONE;
+        }
+        File trainingFile = new File(directory, fingerprint + TRAINING + ARCHIVE);
+        javaParameters.getVMParametersList().add("-XX:ArchiveClassesAtExit=" + trainingFile.getAbsolutePath());
+        return new Launch(Mode.TRAINING, fingerprint, trainingFile);
+    }
+
+    private static Launch skipped(final String reason) {
+
+        LOG.info("LivingDoc class data sharing skipped: " + reason);
+        return Launch.NONE;
+    }
+
+    /**
+     * Keeps the archive dumped by a training run, once its JVM has exited.
+     */
+    void trainingEnded(@NotNull final Launch launch) {
+
+        if (launch.mode == Mode.TRAINING) {
+            trainingEnded(launch.fingerprint, launch.trainingFile);
+        }
+    }
+
+    /**
+     * The training run has not been started: another runner of its classpath will train the archive.
+     */
+    void trainingCancelled(@NotNull final Launch launch) {
+
+        if (launch.mode != Mode.TRAINING) {
+            return;
+        }
+        if (launch.trainingFile.exists() && !launch.trainingFile.delete()) {
+            LOG.warn("The file " + launch.trainingFile.getName() + " has not been deleted.");
+        }
+        synchronized (this) {
+            trainings.remove(launch.fingerprint);
+        }
+    }
+
+    private void trainingEnded(final String fingerprint, @Nullable final File trainingFile) {
+
+        boolean trained = false;
+        if (trainingFile != null && trainingFile.length() > 0) {
+            try {
+                Files.move(trainingFile.toPath(), new File(directory, fingerprint + ARCHIVE).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                trained = true;
+                LOG.info("LivingDoc class data sharing archive created: " + fingerprint + ARCHIVE);
+
+            } catch (IOException ioe) {
+                LOG.warn("The archive " + trainingFile.getName() + " has not been kept.", ioe);
+            }
+        }
+        if (trainingFile != null && trainingFile.exists() && !trainingFile.delete()) {
+            LOG.warn("The file " + trainingFile.getName() + " has not been deleted.");
+        }
+
+        synchronized (this) {
+            trainings.remove(fingerprint);
+            if (!trained) {
+                failedTrainings.merge(fingerprint, 1, Integer::sum);
+            }
+        }
+        if (trained) {
+            long maxAgeMillis = TimeUnit.DAYS.toMillis(Long.parseLong(PluginProperties.getValue("livingdoc.cds.max.age.days")));
+            long maxBytes = Long.parseLong(PluginProperties.getValue("livingdoc.cds.max.mb")) * BYTES_PER_MB;
+            ApplicationManager.getApplication().executeOnPooledThread(
+                    () -> FilesManager.rotate(directory, maxAgeMillis, maxBytes, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Records the JVM startup of a runner: the time until it started its first specification. The training runs are
+     * the startups without archive: they have the same JDK and classpath as the runners with archive.
+     */
+    void recordStartup(@NotNull final Mode mode, final long startupMillis) {
+
+        if (mode == Mode.NONE) {
+            return;
+        }
+        startups.get(mode).add(startupMillis);
+
+        LOG.info("LivingDoc runner JVM startup: " + mode + " " + startupMillis + " ms, average with archive "
+                + startups.get(Mode.SHARED) + ", without archive " + startups.get(Mode.TRAINING));
+    }
+
+    /**
+     * @return The average JVM startup of the runners of this mode, in milliseconds, or -1 whether none has been measured.
+     */
+    long getAverageStartupMillis(@NotNull final Mode mode) {
+        return startups.get(mode).getAverage();
+    }
+
+    /**
+     * @param versionString Version of the JDK, as the output of <code>java -version</code>.
+     * @return True whether the JDK can dump dynamic archives.
+     */
+    static boolean isSupported(@Nullable final String versionString) {
+
+        JavaVersion version = versionString != null ? JavaVersion.tryParse(versionString) : null;
+        return version != null && version.feature >= MIN_FEATURE_VERSION;
+    }
+
+    /**
+     * @param classPath Classpath of a runner, with the entries of its classpath jars.
+     * @return True whether the JVM can dump the classes of the classpath: it has no directories.
+     */
+    static boolean isArchivable(@NotNull final List<String> classPath) {
+        return classPath.stream().noneMatch(path -> new File(path).isDirectory());
+    }
+
+    /**
+     * The entries of the classpath jars of {@link ModuleParametersCache} are added, so a changed library changes the
+     * fingerprint. So does a classpath jar written again: the JVM checks the time and size of every jar against the
+     * archive. The files are not read.
+     *
+     * @return The fingerprint of the classes that a runner can load.
+     */
+    static String getFingerprint(@NotNull final String jdkHome, @Nullable final String jdkVersion, @NotNull final List<String> classPath) {
+
+        MessageDigest digest = DigestUtils.getSha1Digest();
+        digest.update((jdkHome + "\n" + StringUtils.defaultString(jdkVersion) + "\n").getBytes(StandardCharsets.UTF_8));
+
+        List<String> entries = new ArrayList<>(classPath);
+        entries.addAll(ModuleParametersCache.expandClasspathJars(classPath));
+        for (String path : entries) {
+            File entry = new File(path);
+            digest.update((entry.getPath() + "\n" + entry.length() + "\n" + entry.lastModified() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return DigestUtils.sha1Hex(digest.digest());
+    }
+
+    private static boolean isOption(final String vmParameter) {
+        return StringUtils.startsWithAny(vmParameter, OPTIONS);
+    }
+
+    /**
+     * How a runner uses the archive of its classpath.
+     */
+    enum Mode {
+        /**
+         * Started as before: the JDK or the classpath cannot dump dynamic archives, the user has set its own options,
+         * or the archive of its classpath is being trained by another runner.
+         */
+        NONE,
+        /**
+         * Dumps the archive when it exits.
+         */
+        TRAINING,
+        /**
+         * Maps its classes from the archive.
+         */
+        SHARED
+    }
+
+    /**
+     * The archive used by a runner.
+     */
+    static final class Launch {
+
+        static final Launch NONE = new Launch(Mode.NONE, null, null);
+
+        private final Mode mode;
+        private final String fingerprint;
+        private final File trainingFile;
+
+        private Launch(final Mode mode, final String fingerprint, final File trainingFile) {
+            this.mode = mode;
+            this.fingerprint = fingerprint;
+            this.trainingFile = trainingFile;
+        }
+
+        Mode getMode() {
+            return mode;
+        }
+    }
+
+    /**
+     * Measured JVM startups of a mode.
+     */
+    private static final class Startup {
+
+        private long totalMillis;
+        private long count;
+
+        private synchronized void add(final long millis) {
+            totalMillis += millis;
+            count++;
+        }
+
+        private synchronized long getAverage() {
+            return count > 0 ? totalMillis / count : -1L;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return getAverage() + " ms (" + count + " runs)";
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.livingdoc.intellij.run;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * A session with a {@link RunnerDaemonPool runner daemon}, seen as a process: its input and output are the
+ * connection to the daemon, and it ends when the daemon closes the connection. It lets the session run in the IDE
+ * like any other process, with its console.
+ */
+class DaemonSessionProcess extends Process {
+
+    private static final Logger LOG = Logger.getInstance(DaemonSessionProcess.class);
+
+    private final Socket socket;
+    private final InputStream input;
+    private final OutputStream output;
+    private final IntConsumer onEnd;
+
+    private final CountDownLatch ended = new CountDownLatch(1);
+    private volatile int exitValue = 0;
+
+
+    /**
+     * @param socket Connection to the daemon, already authenticated.
+     * @param onEnd  Called once with the exit value when the session ends: zero whether the daemon ended it.
+     */
+    DaemonSessionProcess(@NotNull final Socket socket, @NotNull final IntConsumer onEnd) throws IOException {
+
+        this.socket = socket;
+        this.onEnd = onEnd;
+        this.input = new FilterInputStream(socket.getInputStream()) {
+
+            @Override
+            public int read() throws IOException {
+                try {
+                    return endOnEof(super.read());
+
+                } catch (IOException ioe) {
+                    destroy();
+                    throw ioe;
+                }
+            }
+
+            @Override
+            public int read(@NotNull final byte[] buffer, final int offset, final int length) throws IOException {
+                try {
+                    return endOnEof(super.read(buffer, offset, length));
+
+                } catch (IOException ioe) {
+                    destroy();
+                    throw ioe;
+                }
+            }
+        };
+        this.output = new FilterOutputStream(socket.getOutputStream()) {
+
+            @Override
+            public void write(@NotNull final byte[] buffer, final int offset, final int length) throws IOException {
+                out.write(buffer, offset, length);
+            }
+
+            /**
+             * Closing the standard input of the session only tells the daemon that there are no more specifications.
+             */
+            @Override
+            public void close() throws IOException {
+                flush();
+                if (!socket.isClosed()) {
+                    socket.shutdownOutput();
+                }
+            }
+        };
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return output;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return input;
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+        // The daemon sends the standard error with the standard output.
+        return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public int waitFor() throws InterruptedException {
+        ended.await();
+        return exitValue;
+    }
+
+    @Override
+    public boolean waitFor(final long timeout, @NotNull final TimeUnit unit) throws InterruptedException {
+        return ended.await(timeout, unit);
+    }
+
+    @Override
+    public int exitValue() {
+        if (ended.getCount() > 0) {
+            throw new IllegalThreadStateException("The session has not ended.");
+        }
+        return exitValue;
+    }
+
+    /**
+     * Closes the connection. The daemon ends the session when it has finished the current specification.
+     */
+    @Override
+    public void destroy() {
+        exitValue = 1;
+        end();
+    }
+
+    @Override
+    public boolean isAlive() {
+        return ended.getCount() > 0;
+    }
+
+    private int endOnEof(final int read) {
+        if (read < 0) {
+            end();
+        }
+        return read;
+    }
+
+    private synchronized void end() {
+
+        if (ended.getCount() == 0) {
+            return;
+        }
+        try {
+            socket.close();
+
+        } catch (IOException ioe) {
+            LOG.debug(ioe);
+        }
+        ended.countDown();
+        onEnd.accept(exitValue);
+    }
+}
@@ -0,0 +1,95 @@
+package org.livingdoc.intellij.run;
+
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.connector.DocumentCache;
+import org.livingdoc.intellij.domain.ProjectSettings;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Expected duration of the specifications of a suite, so the {@link SuiteScheduler} runs the longest ones first.<br>
+ * A specification that has been run before is expected to take the median of its last executions, see
+ * {@link ExecutionHistory}. Otherwise its duration is estimated from the size of its cached document, at the time
+ * per byte of the specifications of the suite that have both. Without cached document, it is expected to take the
+ * average of the previous estimates.<br>
+ * It reads the history and the cached documents from the disk, so it is used out of the event dispatch thread, by one
+ * thread at a time.
+ */
+public class DurationEstimator {
+
+    private static final long DEFAULT_MILLIS_PER_KB = 20L;
+    private static final long DEFAULT_MILLIS = 1000L;
+
+    private final ExecutionHistory history;
+    private final ToLongFunction<RemoteRunConfiguration> documentSize;
+
+    private long knownMillis;
+    private long knownBytes;
+    private long estimatedMillis;
+    private int estimated;
+
+
+    /**
+     * @param project The project whose history and cached documents are used.
+     */
+    public DurationEstimator(@NotNull final Project project) {
+
+        this(ExecutionHistory.getInstance(project), new DocumentSize(ProjectSettings.getInstance(project).getUrlServer()));
+    }
+
+    DurationEstimator(@NotNull final ExecutionHistory history, @NotNull final ToLongFunction<RemoteRunConfiguration> documentSize) {
+        this.history = history;
+        this.documentSize = documentSize;
+    }
+
+    /**
+     * @return The expected duration of the specification, in milliseconds.
+     */
+    public long getExpectedMillis(@NotNull final RemoteRunConfiguration specification) {
+        return getExpectedMillis(ExecutionHistory.getKey(specification), documentSize.applyAsLong(specification));
+    }
+
+    /**
+     * @param key           Specification, see {@link ExecutionHistory#getKey(String, String, boolean)}.
+     * @param documentBytes Size of its cached document, or -1 whether it is not cached.
+     */
+    long getExpectedMillis(@NotNull final String key, final long documentBytes) {
+
+        long expected = history.getDurationPercentile(key, 50);
+
+        if (expected >= 0) {
+            if (documentBytes > 0) {
+                knownMillis += expected;
+                knownBytes += documentBytes;
+            }
+        } else if (documentBytes > 0) {
+            expected = knownBytes > 0 ? documentBytes * knownMillis / knownBytes : documentBytes * DEFAULT_MILLIS_PER_KB / 1024L;
+
+        } else {
+            expected = estimated > 0 ? estimatedMillis / estimated : DEFAULT_MILLIS;
+        }
+
+        estimatedMillis += expected;
+        estimated++;
+        return expected;
+    }
+
+    /**
+     * Size of the cached document of a specification.
+     */
+    private static final class DocumentSize implements ToLongFunction<RemoteRunConfiguration> {
+
+        private final String serverUrl;
+
+        private DocumentSize(final String serverUrl) {
+            this.serverUrl = serverUrl;
+        }
+
+        @Override
+        public long applyAsLong(final RemoteRunConfiguration specification) {
+            return DocumentCache.getInstance().getCachedSize(serverUrl, specification.getRepositoryUID(),
+                    specification.getSpecificationName(), specification.isCurrentVersion());
+        }
+    }
+}
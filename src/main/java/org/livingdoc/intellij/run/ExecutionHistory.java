@@ -0,0 +1,354 @@
+package org.livingdoc.intellij.run;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.common.PluginProperties;
+import org.livingdoc.intellij.domain.LivingDocExecution;
+import org.livingdoc.intellij.domain.SpecificationNode;
+import org.livingdoc.intellij.gui.toolwindows.RepositoryViewUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * History of the specification executions of a project, stored under the IDE system directory.<br>
+ * <ul>
+ * <li>The store is an append-only log of small binary records: one per execution, with the specification, its
+ * version, start, duration, JVM startup, counts and outcome.</li>
+ * <li>The last <code>livingdoc.history.runs</code> executions of each specification are kept in memory, indexed by
+ * specification, so the queries never read the disk.</li>
+ * <li>The log is compacted to those executions when it has grown to twice their number, and when it has a
+ * truncated record.</li>
+ * </ul>
+ * NOTE: The settings are configured in <b>config.properties</b>
+ */
+public final class ExecutionHistory {
+
+    private static final Logger LOG = Logger.getInstance(ExecutionHistory.class);
+
+    private static final int MAGIC = 0x4C444548; // LDEH
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Map<String, ExecutionHistory> instances = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final int runsPerSpecification;
+
+    private Map<String, Deque<Run>> runsBySpecification;
+    private int records;
+
+
+    ExecutionHistory(@NotNull final File file, final int runsPerSpecification) {
+        this.file = file;
+        this.runsPerSpecification = runsPerSpecification;
+    }
+
+    /**
+     * @return The history of the project.
+     */
+    public static ExecutionHistory getInstance(@NotNull final Project project) {
+
+        return instances.computeIfAbsent(project.getLocationHash(), locationHash -> new ExecutionHistory(
+                new File(new File(PathManager.getSystemPath(), PluginProperties.getValue("livingdoc.dir.history")), locationHash + ".bin"),
+                Integer.parseInt(PluginProperties.getValue("livingdoc.history.runs"))));
+    }
+
+    /**
+     * Identifies a specification in the history: repository, name and version.
+     */
+    public static String getKey(final String repositoryUid, final String specificationName, final boolean currentVersion) {
+        return repositoryUid + "\n" + specificationName + "\n" + currentVersion;
+    }
+
+    public static String getKey(@NotNull final RemoteRunConfiguration runConfiguration) {
+        return getKey(runConfiguration.getRepositoryUID(), runConfiguration.getSpecificationName(), runConfiguration.isCurrentVersion());
+    }
+
+    public static String getKey(@NotNull final SpecificationNode specificationNode) {
+        return getKey(RepositoryViewUtils.getRepositoryNode(specificationNode).getUid(), specificationNode.getNodeName(),
+                specificationNode.isUsingCurrentVersion());
+    }
+
+    /**
+     * Appends an execution to the history.
+     *
+     * @param runConfiguration The executed specification.
+     * @param start            Start time of the specification.
+     * @param durationMillis   Duration of the specification.
+     * @param startupMillis    Time it waited for the JVM to start once downloaded, or zero whether the JVM was already
+     *                         running. The download is not included: the JVM starts meanwhile.
+     * @param execution        Its results.
+     */
+    public void record(@NotNull final RemoteRunConfiguration runConfiguration, final long start, final long durationMillis,
+                       final long startupMillis, @NotNull final LivingDocExecution execution) {
+
+        record(new Run(getKey(runConfiguration), start, durationMillis, startupMillis, execution.getSuccess(),
+                execution.getFailures(), execution.getErrors(), execution.getIgnored(),
+                execution.hasException() || execution.hasFailed()));
+    }
+
+    synchronized void record(@NotNull final Run run) {
+
+        load();
+        add(run);
+
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))) {
+                if (file.length() == 0) {
+                    output.writeInt(MAGIC);
+                    output.writeInt(FORMAT_VERSION);
+                }
+                run.write(output);
+                records++;
+            }
+        } catch (IOException ioe) {
+            LOG.warn("The execution has not been saved in the history", ioe);
+        }
+
+        if (records > 2 * size()) {
+            compact();
+        }
+    }
+
+    /**
+     * @param key Specification, see {@link #getKey(String, String, boolean)}.
+     * @param n   Maximum number of executions.
+     * @return The last executions of the specification, the most recent first.
+     */
+    public synchronized List<Run> getLastRuns(@NotNull final String key, final int n) {
+
+        load();
+        Deque<Run> runs = runsBySpecification.get(key);
+        if (runs == null) {
+            return Collections.emptyList();
+        }
+        List<Run> lastRuns = new ArrayList<>(Math.min(n, runs.size()));
+        for (Run run : runs) {
+            if (lastRuns.size() == n) {
+                break;
+            }
+            lastRuns.add(run);
+        }
+        return lastRuns;
+    }
+
+    /**
+     * @param key        Specification, see {@link #getKey(String, String, boolean)}.
+     * @param percentile Between 0 and 100, for instance 50 for the median.
+     * @return The duration percentile of the kept executions, or -1 whether the specification has none.
+     */
+    public synchronized long getDurationPercentile(@NotNull final String key, final int percentile) {
+
+        load();
+        Deque<Run> runs = runsBySpecification.get(key);
+        if (runs == null || runs.isEmpty()) {
+            return -1L;
+        }
+        long[] durations = runs.stream().mapToLong(Run::getDurationMillis).sorted().toArray();
+        int index = (int) Math.ceil(percentile / 100d * durations.length) - 1;
+        return durations[Math.max(0, Math.min(durations.length - 1, index))];
+    }
+
+    /**
+     * @param key Specification, see {@link #getKey(String, String, boolean)}.
+     * @return How often the outcome changes between consecutive executions: zero for a stable specification, one
+     * whether it alternates every time. Zero whether it has less than two executions.
+     */
+    public synchronized double getFlakiness(@NotNull final String key) {
+
+        load();
+        Deque<Run> runs = runsBySpecification.get(key);
+        if (runs == null || runs.size() < 2) {
+            return 0d;
+        }
+        int changes = 0;
+        Run previous = null;
+        for (Run run : runs) {
+            if (previous != null && previous.isFailed() != run.isFailed()) {
+                changes++;
+            }
+            previous = run;
+        }
+        return (double) changes / (runs.size() - 1);
+    }
+
+    /**
+     * Reads the log the first time the history is used.
+     */
+    private void load() {
+
+        if (runsBySpecification != null) {
+            return;
+        }
+        runsBySpecification = new HashMap<>();
+        if (!file.isFile()) {
+            return;
+        }
+
+        boolean truncated = false;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                LOG.info("Ignored execution history with another format: " + file.getName());
+                truncated = true;
+
+            } else {
+                while (input.available() > 0) {
+                    add(Run.read(input));
+                    records++;
+                }
+            }
+        } catch (EOFException eofe) {
+            LOG.info("Truncated execution history " + file.getName());
+            truncated = true;
+
+        } catch (IOException ioe) {
+            LOG.warn("Corrupted execution history " + file.getName(), ioe);
+            truncated = true;
+        }
+
+        if (truncated || records > 2 * size()) {
+            compact();
+        }
+    }
+
+    private void add(final Run run) {
+
+        Deque<Run> runs = runsBySpecification.computeIfAbsent(run.getKey(), key -> new ArrayDeque<>());
+        runs.addFirst(run);
+        if (runs.size() > runsPerSpecification) {
+            runs.removeLast();
+        }
+    }
+
+    private int size() {
+        return runsBySpecification.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    /**
+     * Rewrites the log with the kept executions only, oldest first.
+     */
+    private void compact() {
+
+        File tempFile = null;
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                for (Deque<Run> runs : runsBySpecification.values()) {
+                    for (Iterator<Run> iterator = runs.descendingIterator(); iterator.hasNext(); ) {
+                        iterator.next().write(output);
+                    }
+                }
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            records = size();
+
+        } catch (IOException ioe) {
+            LOG.warn("The execution history " + file.getName() + " has not been compacted", ioe);
+
+            if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+                LOG.warn("The file " + tempFile.getName() + " has not been deleted.");
+            }
+        }
+    }
+
+    /**
+     * An execution of a specification.
+     */
+    public static final class Run {
+
+        private final String key;
+        private final long start;
+        private final long durationMillis;
+        private final long startupMillis;
+        private final int success;
+        private final int failures;
+        private final int errors;
+        private final int ignored;
+        private final boolean failed;
+
+        Run(final String key, final long start, final long durationMillis, final long startupMillis, final int success,
+            final int failures, final int errors, final int ignored, final boolean failed) {
+            this.key = key;
+            this.start = start;
+            this.durationMillis = durationMillis;
+            this.startupMillis = startupMillis;
+            this.success = success;
+            this.failures = failures;
+            this.errors = errors;
+            this.ignored = ignored;
+            this.failed = failed;
+        }
+
+        private static Run read(final DataInputStream input) throws IOException {
+            return new Run(input.readUTF(), input.readLong(), input.readLong(), input.readLong(), input.readInt(),
+                    input.readInt(), input.readInt(), input.readInt(), input.readBoolean());
+        }
+
+        private void write(final DataOutputStream output) throws IOException {
+            output.writeUTF(key);
+            output.writeLong(start);
+            output.writeLong(durationMillis);
+            output.writeLong(startupMillis);
+            output.writeInt(success);
+            output.writeInt(failures);
+            output.writeInt(errors);
+            output.writeInt(ignored);
+            output.writeBoolean(failed);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public long getStartupMillis() {
+            return startupMillis;
+        }
+
+        public int getSuccess() {
+            return success;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        public int getIgnored() {
+            return ignored;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.livingdoc.intellij.run;
+
+import com.intellij.execution.testframework.ui.TestStatusLine;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.common.PluginExecutors;
+import org.livingdoc.intellij.common.PluginProperties;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress of the specifications run by an action, shown in the status line while they run.<br>
+ * The LivingDoc runner only tells when a specification starts and finishes, so the progress of a running
+ * specification is estimated from its elapsed time: against its last duration in this IDE session, or against its
+ * number of table rows at the average time per row of the specifications already finished.<br>
+ * The status line is refreshed every <code>livingdoc.progress.refresh.millis</code> (<b>config.properties</b>) while
+ * any specification is running, and only when the fraction has changed.
+ */
+public class ExecutionProgress {
+
+    private static final Logger LOG = Logger.getInstance(ExecutionProgress.class);
+
+    /**
+     * A running specification never shows as finished, whatever its estimate.
+     */
+    private static final double MAX_RUNNING_FRACTION = 0.95d;
+    private static final long DEFAULT_MILLIS_PER_ROW = 50L;
+    private static final long MIN_EXPECTED_MILLIS = 1000L;
+
+    private static final byte[] ROW_TAG = {'<', 't', 'r'};
+
+    /**
+     * Last duration of each specification, by {@link ExecutionHistory#getKey(RemoteRunConfiguration)}.
+     */
+    private static final Map<String, Long> lastDurations = new ConcurrentHashMap<>();
+
+    private final TestStatusLine statusLine;
+    private final Runnable repaint;
+
+    private final Map<RemoteRunConfiguration, Running> running = new IdentityHashMap<>();
+    private int total;
+    private int finished;
+    private long finishedRows;
+    private long finishedRowsMillis;
+
+    private ScheduledFuture<?> refresh;
+    private long paintedPermille = -1L;
+
+
+    /**
+     * @param statusLine {@link TestStatusLine} of the repository view.
+     * @param repaint    Repaints the repository tree, whose nodes show the running specifications.
+     */
+    public ExecutionProgress(@NotNull final TestStatusLine statusLine, @NotNull final Runnable repaint) {
+        this.statusLine = statusLine;
+        this.repaint = repaint;
+    }
+
+    /**
+     * Forgets the previous execution.
+     */
+    public synchronized void reset() {
+
+        stopRefresh();
+        running.clear();
+        total = 0;
+        finished = 0;
+        paintedPermille = -1L;
+    }
+
+    /**
+     * A specification will be run.
+     */
+    public synchronized void specificationQueued() {
+        total++;
+    }
+
+    /**
+     * @param specification The specification that the runner has started.
+     * @param rows          Number of table rows of the specification, or zero whether it is unknown.
+     */
+    public synchronized void specificationStarted(@NotNull final RemoteRunConfiguration specification, final int rows) {
+
+        running.put(specification, new Running(System.currentTimeMillis(), getExpectedMillis(specification, rows), rows));
+        if (refresh == null) {
+            long millis = Long.parseLong(PluginProperties.getValue("livingdoc.progress.refresh.millis"));
+            refresh = PluginExecutors.getScheduler().scheduleWithFixedDelay(this::refresh, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @param specification The specification that has finished, or will not be run.
+     * @return Its duration, or -1 whether it has not been started.
+     */
+    public synchronized long specificationFinished(@NotNull final RemoteRunConfiguration specification) {
+
+        finished++;
+        long duration = -1L;
+        Running run = running.remove(specification);
+        if (run != null) {
+            duration = System.currentTimeMillis() - run.start;
+            lastDurations.put(ExecutionHistory.getKey(specification), duration);
+            if (run.rows > 0) {
+                finishedRows += run.rows;
+                finishedRowsMillis += duration;
+            }
+        }
+        if (running.isEmpty()) {
+            stopRefresh();
+        }
+        return duration;
+    }
+
+    /**
+     * @return Fraction of the queued specifications done, between zero and one.
+     */
+    public synchronized double getFraction() {
+
+        if (total == 0) {
+            return 0d;
+        }
+        long now = System.currentTimeMillis();
+        double done = finished;
+        for (Running run : running.values()) {
+            done += Math.min(MAX_RUNNING_FRACTION, (double) (now - run.start) / run.expectedMillis);
+        }
+        return Math.min(1d, done / Math.max(total, finished + running.size()));
+    }
+
+    /**
+     * Counts the table rows of a specification document without loading it.
+     *
+     * @param specificationFile The downloaded specification.
+     * @return Number of <code>&lt;tr</code> tags, or zero whether the file cannot be read.
+     */
+    public static int countRows(@NotNull final File specificationFile) {
+
+        int rows = 0;
+        int matched = 0;
+        byte[] buffer = new byte[8192];
+
+        try (InputStream input = Files.newInputStream(specificationFile.toPath())) {
+            for (int read = input.read(buffer); read > 0; read = input.read(buffer)) {
+                for (int index = 0; index < read; index++) {
+                    int lowerCase = Character.toLowerCase(buffer[index]);
+                    if (lowerCase == ROW_TAG[matched]) {
+                        if (++matched == ROW_TAG.length) {
+                            rows++;
+                            matched = 0;
+                        }
+                    } else {
+                        matched = lowerCase == ROW_TAG[0] ? 1 : 0;
+                    }
+                }
+            }
+        } catch (IOException ioe) {
+            LOG.debug(ioe);
+            return 0;
+        }
+        return rows;
+    }
+
+    private long getExpectedMillis(final RemoteRunConfiguration specification, final int rows) {
+
+        Long lastDuration = lastDurations.get(ExecutionHistory.getKey(specification));
+        if (lastDuration != null) {
+            return Math.max(MIN_EXPECTED_MILLIS, lastDuration);
+        }
+        long millisPerRow = finishedRows > 0 ? finishedRowsMillis / finishedRows : DEFAULT_MILLIS_PER_ROW;
+        return Math.max(MIN_EXPECTED_MILLIS, rows * millisPerRow);
+    }
+
+    private void refresh() {
+
+        double fraction = getFraction();
+        long permille = Math.round(fraction * 1000d);
+
+        synchronized (this) {
+            if (permille == paintedPermille) {
+                return;
+            }
+            paintedPermille = permille;
+        }
+        SwingUtilities.invokeLater(() -> {
+            statusLine.setFraction(fraction);
+            repaint.run();
+        });
+    }
+
+    private void stopRefresh() {
+
+        if (refresh != null) {
+            refresh.cancel(false);
+            refresh = null;
+        }
+    }
+
+    /**
+     * A running specification: when it started, and how long it is expected to take.
+     */
+    private static final class Running {
+
+        private final long start;
+        private final long expectedMillis;
+        private final int rows;
+
+        private Running(final long start, final long expectedMillis, final int rows) {
+            this.start = start;
+            this.expectedMillis = expectedMillis;
+            this.rows = rows;
+        }
+    }
+}
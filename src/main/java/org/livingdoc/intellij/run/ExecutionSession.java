@@ -0,0 +1,184 @@
+package org.livingdoc.intellij.run;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.domain.LivingDocExecution;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Results of the specifications run by an action, added by the listeners of all its processes at the same time.<br>
+ * Each process adds its results to its own {@link Run}, whose counts are an immutable {@link Snapshot} replaced
+ * atomically. A {@link #snapshot()} of the session sums the ones of its runs without locking them: it always has
+ * all the counts of an execution, or none of them.<br>
+ * The durations of the specifications are kept by the {@link ExecutionHistory}, across sessions.
+ *
+ * @see ProcessListenerLivingDoc
+ */
+public class ExecutionSession {
+
+    private static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0L, 0L);
+
+    private final Queue<Run> runs = new ConcurrentLinkedQueue<>();
+    private final AtomicLong startTime = new AtomicLong();
+    private final AtomicLong endTime = new AtomicLong();
+
+
+    /**
+     * @return The counter of a process of the session.
+     */
+    public Run startRun() {
+
+        Run run = new Run();
+        runs.add(run);
+        return run;
+    }
+
+    /**
+     * A process has started. The start time of the session is the one of its first process.
+     */
+    public void started(final long time) {
+        startTime.compareAndSet(0L, time);
+    }
+
+    /**
+     * A process has reported results or has ended. The end time of the session is the latest one.
+     */
+    public void ended(final long time) {
+        endTime.accumulateAndGet(time, Math::max);
+    }
+
+    /**
+     * @return The counts of the session.
+     */
+    public Snapshot snapshot() {
+
+        Snapshot snapshot = EMPTY;
+        for (Run run : runs) {
+            snapshot = snapshot.plus(run.counts.get());
+        }
+        return snapshot.at(startTime.get(), endTime.get());
+    }
+
+    /**
+     * Counts of the results of a process, rolled up into the session.
+     */
+    public final class Run {
+
+        private final AtomicReference<Snapshot> counts = new AtomicReference<>(EMPTY);
+
+        private Run() {
+        }
+
+        /**
+         * Adds the results of a specification.
+         *
+         * @param execution Its results.
+         */
+        public void add(@NotNull final LivingDocExecution execution) {
+
+            Snapshot added = new Snapshot(execution.getSuccess(), execution.getFailures(), execution.getErrors(),
+                    execution.getIgnored(), 1, 0L, 0L);
+            counts.accumulateAndGet(added, Snapshot::plus);
+        }
+
+        /**
+         * @return The counts of this process only.
+         */
+        public Snapshot snapshot() {
+            return counts.get().at(startTime.get(), endTime.get());
+        }
+    }
+
+    /**
+     * Counts of the session or of one of its processes, at a given time.
+     */
+    public static final class Snapshot {
+
+        private final int success;
+        private final int failures;
+        private final int errors;
+        private final int ignored;
+        private final int specifications;
+        private final long startTime;
+        private final long endTime;
+
+        private Snapshot(final int success, final int failures, final int errors, final int ignored, final int specifications,
+                         final long startTime, final long endTime) {
+            this.success = success;
+            this.failures = failures;
+            this.errors = errors;
+            this.ignored = ignored;
+            this.specifications = specifications;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        public int getSuccess() {
+            return success;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        public int getIgnored() {
+            return ignored;
+        }
+
+        /**
+         * @return Number of tests of all the added executions.
+         */
+        public int getTestsTotal() {
+            return success + failures + errors + ignored;
+        }
+
+        /**
+         * @return Number of added executions.
+         */
+        public int getSpecifications() {
+            return specifications;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        public long getDuration() {
+            return startTime > 0 ? Math.max(0L, endTime - startTime) : 0L;
+        }
+
+        private Snapshot plus(final Snapshot other) {
+            return new Snapshot(success + other.success, failures + other.failures, errors + other.errors,
+                    ignored + other.ignored, specifications + other.specifications, startTime, endTime);
+        }
+
+        private Snapshot at(final long start, final long end) {
+            return new Snapshot(success, failures, errors, ignored, specifications, start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("success", success)
+                    .append("failures", failures)
+                    .append("errors", errors)
+                    .append("ignored", ignored)
+                    .append("specifications", specifications)
+                    .append("startTime", startTime)
+                    .append("endTime", endTime)
+                    .toString();
+        }
+    }
+}
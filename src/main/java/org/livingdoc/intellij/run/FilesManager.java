@@ -1,30 +1,42 @@
 package org.livingdoc.intellij.run;
 
-import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.module.Module;
-import com.intellij.openapi.roots.ModuleRootManager;
-import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileManager;
-import com.intellij.util.PathUtil;
+import com.intellij.openapi.project.Project;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.livingdoc.intellij.common.PluginProperties;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * To create the files used in LivingDoc execution.<br>
- * NOTE: File names are configured in <b>config.properties</b>
+ * They are scratch files of the IDE system directory, one directory per project, so the project files are not
+ * refreshed nor indexed again after every execution. Every execution has its own files, and the oldest ones are
+ * removed by {@link #cleanUp(Project)} when they are too old or too large.<br>
+ * NOTE: File names, maximum age and size are configured in <b>config.properties</b>
  */
-class FilesManager {
+public class FilesManager {
 
     private static final Logger LOG = Logger.getInstance(FilesManager.class);
 
     private static final String HTML = ".html";
     private static final String XML = ".xml";
     private static final String SEPARATOR = "_";
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    /**
+     * The execution identifiers are unique in this IDE session, and the session is unique for the scratch files.
+     */
+    private static final String SESSION = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private static final AtomicLong executions = new AtomicLong();
 
     private final RemoteRunConfiguration runConfiguration;
 
@@ -35,6 +47,68 @@ class FilesManager {
         this.runConfiguration = runConfiguration;
     }
 
+    /**
+     * @return A new identifier for the files of an execution.
+     */
+    static String newExecutionId() {
+        return SESSION + SEPARATOR + executions.incrementAndGet();
+    }
+
+    /**
+     * Removes in background the scratch files of the project older than <code>livingdoc.scratch.max.age.hours</code>,
+     * and then the oldest ones beyond <code>livingdoc.scratch.max.mb</code>. The files of this IDE session are only
+     * removed when they are too old: their executions may still be running.
+     */
+    public static void cleanUp(@NotNull final Project project) {
+
+        File directory = getScratchDir(project);
+        long maxAgeMillis = TimeUnit.HOURS.toMillis(Long.parseLong(PluginProperties.getValue("livingdoc.scratch.max.age.hours")));
+        long maxBytes = Long.parseLong(PluginProperties.getValue("livingdoc.scratch.max.mb")) * BYTES_PER_MB;
+
+        ApplicationManager.getApplication().executeOnPooledThread(
+                () -> rotate(directory, maxAgeMillis, maxBytes, System.currentTimeMillis(), SEPARATOR + SESSION + SEPARATOR));
+    }
+
+    /**
+     * @return The number of removed files.
+     */
+    static int rotate(@NotNull final File directory, final long maxAgeMillis, final long maxBytes, final long now) {
+        return rotate(directory, maxAgeMillis, maxBytes, now, null);
+    }
+
+    /**
+     * @param liveMarker Part of the names of the files that are only removed when they are too old, or null.
+     * @return The number of removed files.
+     */
+    static int rotate(@NotNull final File directory, final long maxAgeMillis, final long maxBytes, final long now,
+                      @Nullable final String liveMarker) {
+
+        File[] files = directory.listFiles(File::isFile);
+        if (files == null) {
+            return 0;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+
+        int removed = 0;
+        long totalBytes = 0L;
+        for (File file : files) {
+
+            totalBytes += file.length();
+            boolean live = liveMarker != null && file.getName().contains(liveMarker);
+            if (now - file.lastModified() > maxAgeMillis || totalBytes > maxBytes && !live) {
+                if (file.delete()) {
+                    removed++;
+                } else {
+                    LOG.warn("The file " + file.getName() + " has not been deleted.");
+                }
+            }
+        }
+        if (removed > 0) {
+            LOG.info(removed + " LivingDoc scratch files removed from " + directory.getName());
+        }
+        return removed;
+    }
+
     /**
      * Return the temporal <b>specification</b> file.<br>
      * The file is created whether it doesn't exist.
@@ -73,7 +147,10 @@ class FilesManager {
 
     private File createFile(final String fileType, final String extension) throws IOException {
 
-        File file = new File(getLivingDocDir(), buildFileName(fileType, extension));
+        File directory = getScratchDir(runConfiguration.getProject());
+        Files.createDirectories(directory.toPath());
+
+        File file = new File(directory, buildFileName(fileType, extension));
 
         if (!file.exists() && !file.createNewFile()) {
             LOG.error("The file " + fileType + " has not been created.");
@@ -83,49 +160,16 @@ class FilesManager {
     }
 
     /**
-     * Returns the parent folder path for the created files.<br>
-     * If it does not exist, it is created only once under the select module.
-     *
-     * @return String
+     * @return The directory of the scratch files of the project.
      */
-    private String getLivingDocDir() {
-
-        Module selectedModule = runConfiguration.getConfigurationModule().getModule();
-        assert selectedModule != null;
-        String[] contentRootUrls = ModuleRootManager.getInstance(selectedModule).getContentRootUrls();
-
-        VirtualFile parentDir = VirtualFileManager.getInstance().findFileByUrl(contentRootUrls[0]);
-
-        String folderName = PluginProperties.getValue("livingdoc.dir.project");
-        assert parentDir != null;
-        final VirtualFile[] livingDocDir = {parentDir.findChild(folderName)};
-
-        if (livingDocDir[0] == null) {
-            Application application = ApplicationManager.getApplication();
-            Runnable runnable = new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        livingDocDir[0] = parentDir.createChildDirectory(this, folderName);
-                        LOG.info("Folder created: " + livingDocDir[0].getPath());
-
-                    } catch (IOException ioe) {
-                        LOG.error(ioe);
-                    }
-                }
-            };
-            if (application.isDispatchThread()) {
-                application.runWriteAction(runnable);
-            } else {
-                application.invokeLater(() -> application.runWriteAction(runnable));
-            }
-        }
-        return PathUtil.toSystemDependentName(livingDocDir[0].getPath());
+    private static File getScratchDir(final Project project) {
+        return new File(new File(PathManager.getSystemPath(), PluginProperties.getValue("livingdoc.dir.scratch")), project.getLocationHash());
     }
 
     private String buildFileName(final String fileType, final String extension) {
         String prefix = runConfiguration.getRepositoryUID().replaceAll("\\\\", SEPARATOR).replaceAll("/", SEPARATOR).replaceAll("-", SEPARATOR);
         String altName = runConfiguration.getSpecificationName().replaceAll("\\\\", SEPARATOR).replaceAll("/", SEPARATOR).replaceAll("\"", "''");
-        return String.format("%s_%s_%s%s", prefix, altName, fileType, extension);
+        // Concurrent executions, and the workers of a suite, never share files, even when they run the same specification.
+        return String.format("%s_%s_%s_%s%s", prefix, altName, fileType, runConfiguration.getExecutionId(), extension);
     }
 }
@@ -0,0 +1,271 @@
+package org.livingdoc.intellij.run;
+
+import com.intellij.ProjectTopics;
+import com.intellij.execution.CantRunException;
+import com.intellij.execution.configurations.JavaParameters;
+import com.intellij.execution.configurations.RunConfigurationModule;
+import com.intellij.execution.util.JavaParametersUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.messages.MessageBusConnection;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.common.PluginProperties;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.regex.Pattern;
+
+/**
+ * JDK, classpath and JVM parameters of the modules, as configured by
+ * {@link JavaParametersUtil#configureModule(RunConfigurationModule, JavaParameters, int, String)}, computed once
+ * for all the executions of a module. The entries of a project are removed when its module roots change.<br>
+ * A classpath longer than <code>livingdoc.classpath.jar.min.chars</code> is passed through a classpath jar: a jar
+ * with only a manifest whose <code>Class-Path</code> has the entries. The jar is named after its entries, so it is
+ * written once for the same classpath, and removed after <code>livingdoc.classpath.max.age.days</code>. It is not
+ * touched when it is used, so a Class-Data Sharing archive of the classpath stays valid: it is written again whether
+ * it has been removed.<br>
+ * NOTE: The settings are configured in <b>config.properties</b>
+ */
+public final class ModuleParametersCache {
+
+    private static final Logger LOG = Logger.getInstance(ModuleParametersCache.class);
+
+    private static final Pattern CLASSPATH_JAR = Pattern.compile("[0-9a-f]{40}\\.jar");
+
+    private static ModuleParametersCache instance;
+
+    private final Map<List<Object>, Parameters> parameters = new HashMap<>();
+    /**
+     * Incremented by every invalidation, so the parameters computed before it are not cached.
+     */
+    private long generation;
+    private final Set<Project> subscribedProjects = Collections.newSetFromMap(new WeakHashMap<>());
+
+
+    private ModuleParametersCache() {
+        // Singleton.
+    }
+
+    public static synchronized ModuleParametersCache getInstance() {
+
+        if (instance == null) {
+            instance = new ModuleParametersCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Same as {@link JavaParametersUtil#configureModule(RunConfigurationModule, JavaParameters, int, String)}, with
+     * the parameters computed by a previous execution of the module whether its roots have not changed since.
+     *
+     * @throws CantRunException Whether the module has no JDK.
+     */
+    void configureModule(@NotNull final RunConfigurationModule configurationModule, @NotNull final JavaParameters javaParameters,
+                         final int classPathType, @Nullable final String jreHome) throws CantRunException {
+
+        Module module = configurationModule.getModule();
+        if (module == null) {
+            // Reported by the IDE.
+            JavaParametersUtil.configureModule(configurationModule, javaParameters, classPathType, jreHome);
+            return;
+        }
+
+        List<Object> key = Arrays.asList(module, classPathType, jreHome);
+        Parameters moduleParameters;
+        long computedGeneration;
+        synchronized (this) {
+            subscribe(module.getProject());
+            moduleParameters = parameters.get(key);
+            computedGeneration = generation;
+        }
+
+        if (moduleParameters == null) {
+            JavaParameters computed = new JavaParameters();
+            JavaParametersUtil.configureModule(configurationModule, computed, classPathType, jreHome);
+            moduleParameters = new Parameters(module.getProject(), computed);
+
+            synchronized (this) {
+                // The roots may have changed while the parameters were computed.
+                if (generation == computedGeneration) {
+                    parameters.put(key, moduleParameters);
+                }
+            }
+        }
+        moduleParameters.applyTo(javaParameters);
+    }
+
+    /**
+     * Forgets the parameters of the modules of a project.
+     */
+    public synchronized void invalidate(@NotNull final Project project) {
+        generation++;
+        parameters.values().removeIf(moduleParameters -> moduleParameters.project == project);
+    }
+
+    private void subscribe(final Project project) {
+
+        if (!subscribedProjects.add(project)) {
+            return;
+        }
+        MessageBusConnection connection = project.getMessageBus().connect(project);
+
+        connection.subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootListener() {
+
+            @Override
+            public void rootsChanged(ModuleRootEvent event) {
+                invalidate(project);
+            }
+        });
+        Disposer.register(project, () -> invalidate(project));
+    }
+
+    /**
+     * @return The classpath jar of these entries, or null whether it cannot be written.
+     */
+    @Nullable
+    static File getClasspathJar(@NotNull final File directory, @NotNull final List<String> classPath) {
+
+        File jar = new File(directory, DigestUtils.sha1Hex(String.join(File.pathSeparator, classPath)) + ".jar");
+        if (jar.isFile()) {
+            return jar;
+        }
+
+        StringBuilder entries = new StringBuilder();
+        for (String path : classPath) {
+            if (entries.length() > 0) {
+                entries.append(' ');
+            }
+            // The directories end with a slash.
+            entries.append(new File(path).toURI().toASCIIString());
+        }
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, entries.toString());
+
+        File tempFile = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            tempFile = File.createTempFile(jar.getName(), ".tmp", directory);
+
+            try (JarOutputStream output = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)), manifest)) {
+                output.flush();
+            }
+            Files.move(tempFile.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return jar;
+
+        } catch (IOException ioe) {
+            LOG.warn("The classpath jar " + jar.getName() + " has not been written.", ioe);
+            return null;
+
+        } finally {
+            if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+                LOG.warn("The file " + tempFile.getName() + " has not been deleted.");
+            }
+        }
+    }
+
+    /**
+     * @param classPath Classpath of a runner.
+     * @return The classpath with the entries of its classpath jars instead of the jars.
+     */
+    static List<String> expandClasspathJars(@NotNull final List<String> classPath) {
+
+        List<String> entries = new ArrayList<>(classPath.size());
+        for (String path : classPath) {
+
+            File file = new File(path);
+            if (!CLASSPATH_JAR.matcher(file.getName()).matches() || !file.isFile()) {
+                entries.add(path);
+                continue;
+            }
+            try (JarFile jar = new JarFile(file)) {
+                Manifest manifest = jar.getManifest();
+                String jarClassPath = manifest != null ? manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) : null;
+                for (String uri : StringUtils.split(StringUtils.defaultString(jarClassPath), ' ')) {
+                    entries.add(Paths.get(URI.create(uri)).toString());
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.debug("The classpath jar " + file.getName() + " has not been read.", e);
+                entries.add(path);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * The parameters configured for a module.
+     */
+    private static final class Parameters {
+
+        private final Project project;
+        private final Sdk jdk;
+        private final Charset charset;
+        private final List<String> classPath;
+        /**
+         * Classpath jar of the classpath, or null whether it is passed as is.
+         */
+        private final File classpathJar;
+        private final List<String> modulePath;
+        private final List<String> vmParameters;
+
+        private Parameters(final Project project, final JavaParameters javaParameters) {
+
+            this.project = project;
+            this.jdk = javaParameters.getJdk();
+            this.charset = javaParameters.getCharset();
+            this.modulePath = javaParameters.getModulePath().getPathList();
+            this.vmParameters = javaParameters.getVMParametersList().getList();
+
+            this.classPath = javaParameters.getClassPath().getPathList();
+            File jar = null;
+            if (javaParameters.getClassPath().getPathsString().length() >= Integer.parseInt(PluginProperties.getValue("livingdoc.classpath.jar.min.chars"))) {
+                jar = getClasspathJar(new File(PathManager.getSystemPath(), PluginProperties.getValue("livingdoc.dir.classpath")), classPath);
+            }
+            this.classpathJar = jar;
+
+            if (jar != null) {
+                File directory = jar.getParentFile();
+                long maxAgeMillis = TimeUnit.DAYS.toMillis(Long.parseLong(PluginProperties.getValue("livingdoc.classpath.max.age.days")));
+                ApplicationManager.getApplication().executeOnPooledThread(
+                        () -> FilesManager.rotate(directory, maxAgeMillis, Long.MAX_VALUE, System.currentTimeMillis()));
+            }
+        }
+
+        private void applyTo(final JavaParameters javaParameters) {
+
+            List<String> paths = classPath;
+            if (classpathJar != null) {
+                File jar = classpathJar.isFile() ? classpathJar : getClasspathJar(classpathJar.getParentFile(), classPath);
+                if (jar != null) {
+                    paths = Collections.singletonList(jar.getAbsolutePath());
+                }
+            }
+
+            javaParameters.setJdk(jdk);
+            javaParameters.setCharset(charset);
+            javaParameters.getClassPath().addAll(paths);
+            javaParameters.getModulePath().addAll(modulePath);
+            javaParameters.getVMParametersList().addAll(vmParameters);
+        }
+    }
+}
@@ -2,30 +2,52 @@ package org.livingdoc.intellij.run;
 
 import com.intellij.execution.process.ProcessAdapter;
 import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessOutputTypes;
 import com.intellij.execution.testframework.ui.TestStatusLine;
-import com.intellij.ide.browsers.BrowserLauncher;
-import com.intellij.ide.browsers.BrowserLauncherImpl;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
 import com.intellij.openapi.progress.util.ColorProgressBar;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.ui.content.Content;
 import org.apache.commons.lang3.StringUtils;
 import org.livingdoc.intellij.common.I18nSupport;
+import org.livingdoc.intellij.common.Icons;
+import org.livingdoc.intellij.common.PluginExecutors;
 import org.livingdoc.intellij.common.PluginProperties;
 import org.livingdoc.intellij.connector.LivingDocConnector;
-import org.livingdoc.intellij.domain.ExecutionCounter;
+import org.livingdoc.intellij.connector.LivingDocConnectorService;
 import org.livingdoc.intellij.domain.LivingDocException;
 import org.livingdoc.intellij.domain.LivingDocExecution;
+import org.livingdoc.intellij.domain.ModuleSettings;
 import org.livingdoc.intellij.domain.ProjectSettings;
+import org.livingdoc.intellij.gui.toolwindows.ExecutionResult;
 import org.livingdoc.intellij.gui.toolwindows.RepositoryViewUtils;
+import org.livingdoc.intellij.run.remote.SuiteMain;
 
 import javax.swing.*;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 
 /**
- * This class will monitor the execution of a LivingDoc execution and it will capture its output.
+ * This class will monitor the execution of a LivingDoc execution and it will capture its output.<br>
+ * For a suite execution, the listener feeds its worker: it hands out the next specification of the
+ * {@link SuiteScheduler} through the standard input of {@link SuiteMain}, and loads each result as soon as the worker
+ * reports it finished. The next documents are downloaded while the workers run the current ones. Whether the
+ * unchanged specifications are skipped, they are reported from their last green execution instead of being handed
+ * to the worker, see {@link ResultCache}.
  *
  * @see ProcessAdapter
  */
@@ -34,80 +56,477 @@ public class ProcessListenerLivingDoc extends ProcessAdapter {
     private static final Logger LOG = Logger.getInstance(ProcessListenerLivingDoc.class);
 
     private final RemoteRunConfiguration runConfiguration;
-    private final FilesManager livingDocFilesManager;
-
-    private final ExecutionCounter executionCounter;
+    private final SuiteScheduler suiteScheduler;
+
+    /**
+     * Specifications handed to this worker, by the index reported by {@link SuiteMain}.
+     */
+    private final List<RemoteRunConfiguration> dispatchedSpecifications = new CopyOnWriteArrayList<>();
+    private final BitSet finishedSpecifications = new BitSet();
+
+    /**
+     * Table rows of the downloaded specifications, to estimate their progress.
+     */
+    private final Map<RemoteRunConfiguration, Integer> specificationRows = new ConcurrentHashMap<>();
+
+    /**
+     * Fingerprints of the downloaded specifications, whether the unchanged ones are skipped. See {@link ResultCache}.
+     */
+    private final Map<RemoteRunConfiguration, String> fingerprints = new ConcurrentHashMap<>();
+    private final boolean skipUnchanged;
+    private final ClassDataSharing.Mode classDataSharing;
+
+    private final ExecutionSession executionSession;
+    private final ExecutionSession.Run executionRun;
+    private final ExecutionProgress executionProgress;
     private final TestStatusLine statusLine;
 
-    private boolean hasError = false;
+    private final StringBuilder outputLine = new StringBuilder();
+    private ProcessHandler processHandler;
+    private int workerId;
+    private long processStartMillis;
+    private volatile long firstDispatchMillis;
+    private volatile long startupMillis;
+    private volatile boolean terminated = false;
+    private volatile boolean hasError = false;
 
 
     public ProcessListenerLivingDoc(final RemoteRunConfiguration runConfiguration) {
+        this(runConfiguration, ClassDataSharing.Mode.NONE);
+    }
 
+    /**
+     * @param classDataSharing How the JVM of the process uses the archive of its classpath, see {@link ClassDataSharing}.
+     */
+    ProcessListenerLivingDoc(final RemoteRunConfiguration runConfiguration, final ClassDataSharing.Mode classDataSharing) {
+
+        this.classDataSharing = classDataSharing;
         this.runConfiguration = runConfiguration;
-        this.livingDocFilesManager = new FilesManager(this.runConfiguration);
+        this.suiteScheduler = runConfiguration.getSuiteScheduler();
 
         this.statusLine = runConfiguration.getStatusLine();
-        this.executionCounter = runConfiguration.getExecutionCounter();
+        this.executionSession = runConfiguration.getExecutionSession();
+        this.executionRun = executionSession.startRun();
+        this.executionProgress = runConfiguration.getExecutionProgress();
+
+        this.skipUnchanged = suiteScheduler != null && ProjectSettings.getInstance(runConfiguration.getProject()).isSkipUnchanged();
     }
 
     @Override
     public void startNotified(ProcessEvent event) {
 
-        if (executionCounter.getStartTime() == 0) {
-            // Set the start time only the first time.
-            executionCounter.setStartTime(System.currentTimeMillis());
-        }
+        processStartMillis = System.currentTimeMillis();
+        executionSession.started(processStartMillis);
         SwingUtilities.invokeLater(() -> {
             statusLine.setText(I18nSupport.getValue("run.execution.running.label"));
             statusLine.setStatusColor(ColorProgressBar.GREEN);
-            statusLine.setFraction(0d);
+            statusLine.setFraction(executionProgress.getFraction());
         });
+
+        if (suiteScheduler != null) {
+            processHandler = event.getProcessHandler();
+            startupMillis = -1L;
+            workerId = suiteScheduler.workerStarted();
+            dispatchNextSpecification();
+
+        } else {
+            try {
+                specificationStarted(runConfiguration, ExecutionProgress.countRows(new FilesManager(runConfiguration).createSpecificationFile()));
+
+            } catch (IOException ioe) {
+                LOG.debug(ioe);
+                specificationStarted(runConfiguration, 0);
+            }
+        }
     }
 
+    /**
+     * In a suite execution, the progress of each specification is followed from the lines of {@link SuiteMain}, and
+     * its result is loaded as soon as it is reported finished.
+     */
     @Override
-    public void processTerminated(ProcessEvent processEvent) {
+    public void onTextAvailable(ProcessEvent event, Key outputType) {
 
-        executionCounter.setEndTime(System.currentTimeMillis());
+        if (suiteScheduler == null || outputType != ProcessOutputTypes.STDOUT) {
+            return;
+        }
+        // A line may be split between several events: only the complete lines are parsed.
+        outputLine.append(event.getText());
+        for (int end = outputLine.indexOf("\n"); end >= 0; end = outputLine.indexOf("\n")) {
+            String line = outputLine.substring(0, end + 1);
+            outputLine.delete(0, end + 1);
+            lineAvailable(line);
+        }
+    }
 
-        if (processEvent.getExitCode() == 0) {
-            try {
-                LivingDocExecution execution = getLivingDocExecution();
+    private void lineAvailable(final String line) {
+
+        int started = SuiteMain.parseStartedIndex(line);
+        if (started >= 0 && started < dispatchedSpecifications.size()) {
+            RemoteRunConfiguration specification = dispatchedSpecifications.get(started);
+            Integer rows = specificationRows.remove(specification);
+            if (startupMillis < 0) {
+                // The first specification of the worker waited for the JVM to start, once downloaded. The JVM starts
+                // while the document downloads, so the download time is not counted.
+                startupMillis = System.currentTimeMillis() - Math.max(processStartMillis, firstDispatchMillis);
+                ClassDataSharing.getInstance().recordStartup(classDataSharing, startupMillis);
+            }
+            specificationStarted(specification, rows != null ? rows : 0);
+            return;
+        }
 
-                updateStatusLine(execution);
+        int index = SuiteMain.parseFinishedIndex(line);
+        if (index >= 0 && index < dispatchedSpecifications.size()) {
+            // The worker is busy with the next specification while this result is loaded.
+            dispatchNextSpecification();
 
-                File resultFile = loadResultFile(execution);
+            executionSession.ended(System.currentTimeMillis());
+            finishSpecification(index, dispatchedSpecifications.get(index), isSingleSpecification());
+        }
+    }
 
-                BrowserLauncher browser = new BrowserLauncherImpl();
-                browser.open(resultFile.getPath());
+    @Override
+    public void processTerminated(ProcessEvent processEvent) {
+
+        terminated = true;
+        executionSession.ended(System.currentTimeMillis());
 
-            } catch (IOException | LivingDocException e) {
-                LOG.error(e);
+        if (suiteScheduler != null) {
+            for (int index = 0; index < dispatchedSpecifications.size(); index++) {
+                if (!isFinished(index)) {
+                    setUnfinished(dispatchedSpecifications.get(index));
+                }
             }
+            suiteScheduler.workerTerminated().forEach(this::setUnfinished);
+
+        } else if (processEvent.getExitCode() == 0 || isTrainingReport()) {
+            finishSpecification(0, runConfiguration, true);
+
         } else {
+            runConfiguration.getResultsPanel().addResult(new ExecutionResult(runConfiguration.getSpecificationName(), null,
+                    executionProgress.specificationFinished(runConfiguration), null, false), false);
             statusLine.setText(I18nSupport.getValue("run.execution.error.process"));
             statusLine.setStatusColor(ColorProgressBar.RED);
             statusLine.setFraction(100d);
         }
     }
 
-    private void updateStatusLine(final LivingDocExecution execution) {
+    /**
+     * A training run exits with an error whether its class data sharing archive could not be dumped, after the
+     * specification has been run: its report is loaded all the same, whether it has been written by this run.
+     */
+    private boolean isTrainingReport() {
+
+        if (classDataSharing != ClassDataSharing.Mode.TRAINING) {
+            return false;
+        }
+        try {
+            File reportFile = new FilesManager(runConfiguration).createReportFile();
+            // The file times may be rounded to the second.
+            return reportFile.length() > 0 && reportFile.lastModified() >= processStartMillis - TimeUnit.SECONDS.toMillis(1);
+
+        } catch (IOException ioe) {
+            LOG.debug(ioe);
+            return false;
+        }
+    }
+
+    /**
+     * The worker process of a suite could not be started. It is released all the same, so the suite closes when the
+     * other workers end, and the specifications that none of them will run are reported unfinished.
+     */
+    void workerNotStarted() {
+
+        terminated = true;
+        executionSession.ended(System.currentTimeMillis());
+        suiteScheduler.workerTerminated().forEach(this::setUnfinished);
+    }
+
+    /**
+     * Hands the next specification to the worker, out of the process threads. The {@link SuiteScheduler} downloads
+     * the following ones while the workers run theirs. It waits only whether the next document has not been
+     * downloaded yet, or while the queue is open and empty. The standard input is closed when the queue is closed and
+     * empty, so the worker ends.
+     */
+    private void dispatchNextSpecification() {
+
+        PluginExecutors.getDispatchExecutor().execute(() -> {
+
+            for (SuiteScheduler.Download next = takeNext(); next != null; next = takeNext()) {
+                RemoteRunConfiguration specification = next.getSpecification();
+                try {
+                    String line = next.getLine().get();
+                    if (terminated) {
+                        setUnfinished(specification);
+                        return;
+                    }
+                    File specificationFile = new FilesManager(specification).createSpecificationFile();
+                    if (skipUnchanged) {
+                        putFingerprint(specification, specificationFile);
+                    }
+                    if (restoreUnchanged(specification)) {
+                        reportSpecification(specification, executionProgress.specificationFinished(specification),
+                                isSingleSpecification(), true);
+                        continue;
+                    }
+                    specificationRows.put(specification, ExecutionProgress.countRows(specificationFile));
+                    if (dispatchedSpecifications.isEmpty()) {
+                        firstDispatchMillis = System.currentTimeMillis();
+                    }
+                    dispatchedSpecifications.add(specification);
+                    writeInput(line + "\n");
+                    return;
+
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    setUnfinished(specification);
+                    return;
+
+                } catch (ExecutionException | CancellationException | IOException e) {
+                    LOG.warn(e);
+                    setUnfinished(specification);
+                }
+            }
+            closeInput();
+        });
+    }
+
+    /**
+     * @return The next specification of the suite, or null whether there are no more or the worker has terminated.
+     */
+    private SuiteScheduler.Download takeNext() {
+        return terminated ? null : suiteScheduler.nextSpecification(this::download);
+    }
+
+    /**
+     * Starts downloading a specification, for whichever worker takes it.
+     *
+     * @return Its line for {@link SuiteMain}, completed when it has been downloaded.
+     */
+    private CompletableFuture<String> download(final RemoteRunConfiguration specification) {
+
+        try {
+            FilesManager filesManager = new FilesManager(specification);
+            File specificationFile = filesManager.createSpecificationFile();
+            File reportFile = filesManager.createReportFile();
+
+            LivingDocConnector livingDocConnector = LivingDocConnectorService.getInstance(runConfiguration.getProject()).getConnector();
+            return livingDocConnector.async().printSpecification(specification, specificationFile).thenApply(printed ->
+                    SuiteMain.formatLine(specificationFile.getAbsolutePath(), reportFile.getAbsolutePath()));
+
+        } catch (IOException ioe) {
+            CompletableFuture<String> line = new CompletableFuture<>();
+            line.completeExceptionally(ioe);
+            return line;
+        }
+    }
+
+    private void writeInput(final String text) throws IOException {
+
+        OutputStream input = processHandler.getProcessInput();
+        if (input == null) {
+            throw new IOException("The worker " + workerId + " has no standard input.");
+        }
+        input.write(text.getBytes(StandardCharsets.UTF_8));
+        input.flush();
+    }
+
+    private void closeInput() {
+
+        OutputStream input = processHandler.getProcessInput();
+        try {
+            if (input != null) {
+                input.close();
+            }
+        } catch (IOException ioe) {
+            LOG.debug(ioe);
+        }
+    }
+
+    /**
+     * A specification reported finished by the runner.
+     */
+    private void finishSpecification(final int index, final RemoteRunConfiguration specification, final boolean single) {
+
+        synchronized (finishedSpecifications) {
+            if (finishedSpecifications.get(index)) {
+                return;
+            }
+            finishedSpecifications.set(index);
+        }
+        reportSpecification(specification, executionProgress.specificationFinished(specification), single, false);
+    }
+
+    /**
+     * Loads the report of a specification, updates the status line and adds the result to the results panel. The
+     * result of a single specification is shown at once.
+     *
+     * @param cached True whether the report is the one of its last green execution, see {@link ResultCache}.
+     */
+    private void reportSpecification(final RemoteRunConfiguration specification, final long duration, final boolean single,
+                                     final boolean cached) {
+        try {
+            LivingDocExecution execution = getLivingDocExecution(specification);
+
+            updateStatusLine(specification, execution);
+
+            File resultFile = loadResultFile(specification, execution);
+
+            if (duration >= 0) {
+                long startup = Math.max(0L, startupMillis);
+                startupMillis = 0L;
+                ExecutionHistory.getInstance(specification.getProject()).record(specification,
+                        System.currentTimeMillis() - duration, duration, startup, execution);
+            }
+            String fingerprint = fingerprints.remove(specification);
+            if (fingerprint != null && !cached) {
+                if (execution.hasException() || execution.hasFailed()) {
+                    ResultCache.getInstance().invalidate(getResultKey(specification));
+                } else {
+                    ResultCache.getInstance().store(getResultKey(specification), fingerprint, new FilesManager(specification).createReportFile());
+                }
+            }
+
+            specification.getResultsPanel().addResult(
+                    new ExecutionResult(specification.getSpecificationName(), execution, duration, resultFile, cached), single);
+            if (single) {
+                SwingUtilities.invokeLater(this::showResults);
+            }
+
+        } catch (IOException | LivingDocException e) {
+            LOG.error(e);
+        }
+    }
+
+    /**
+     * Computes the fingerprint of a downloaded specification. Without fingerprint, the specification is run.
+     */
+    private void putFingerprint(final RemoteRunConfiguration specification, final File specificationFile) {
 
-        if (!hasError && (execution.hasException() || execution.hasFailed())) {
+        Module module = specification.getConfigurationModule().getModule();
+        if (module == null) {
+            return;
+        }
+        try {
+            ModuleSettings moduleSettings = ModuleSettings.getInstance(module);
+            String moduleFingerprint = suiteScheduler.getModuleFingerprint(() -> ResultCache.getModuleFingerprint(module));
+            fingerprints.put(specification, ResultCache.getFingerprint(specificationFile, moduleFingerprint,
+                    moduleSettings.getSudClassName(), moduleSettings.getSudArgs()));
+
+        } catch (IOException ioe) {
+            LOG.debug(ioe);
+        }
+    }
+
+    /**
+     * Copies the report of the last green execution of the specification, whether it has not changed since.
+     *
+     * @return True whether the specification must not be run.
+     */
+    private boolean restoreUnchanged(final RemoteRunConfiguration specification) throws IOException {
+
+        String fingerprint = fingerprints.get(specification);
+        if (fingerprint == null) {
+            return false;
+        }
+        specificationRows.remove(specification);
+        return ResultCache.getInstance().restore(getResultKey(specification), fingerprint, new FilesManager(specification).createReportFile());
+    }
+
+    /**
+     * @return The specification in the {@link ResultCache}: the reports of a project are not shared with another one.
+     */
+    private static String getResultKey(final RemoteRunConfiguration specification) {
+        return specification.getProject().getLocationHash() + "\n" + ExecutionHistory.getKey(specification);
+    }
+
+    /**
+     * Selects the results tab of the tool window.
+     */
+    private void showResults() {
+
+        ToolWindow toolWindow = ToolWindowManager.getInstance(runConfiguration.getProject())
+                .getToolWindow(PluginProperties.getValue("toolwindows.id"));
+        Content content = toolWindow.getContentManager().getContent(runConfiguration.getResultsPanel());
+        if (content != null) {
+            toolWindow.getContentManager().setSelectedContent(content);
+        }
+        toolWindow.activate(null);
+    }
+
+    /**
+     * @return True whether the suite has only one specification, so it is shown like a single execution.
+     */
+    private boolean isSingleSpecification() {
+        return suiteScheduler.isClosed() && suiteScheduler.getTotalSpecifications() == 1;
+    }
+
+    private boolean isFinished(final int index) {
+
+        synchronized (finishedSpecifications) {
+            return finishedSpecifications.get(index);
+        }
+    }
+
+    /**
+     * The runner has started the specification: its node shows it is running.
+     */
+    private void specificationStarted(final RemoteRunConfiguration specification, final int rows) {
+
+        executionProgress.specificationStarted(specification, rows);
+        SwingUtilities.invokeLater(() -> specification.getSelectedNode().setIcon(Icons.RUNNING));
+    }
+
+    private void setUnfinished(final RemoteRunConfiguration specification) {
+
+        hasError = true;
+        specificationRows.remove(specification);
+        fingerprints.remove(specification);
+        specification.getResultsPanel().addResult(new ExecutionResult(specification.getSpecificationName(), null,
+                executionProgress.specificationFinished(specification), null, false), false);
+        if (suiteScheduler != null) {
+            suiteScheduler.specificationFinished(specification, true);
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            statusLine.setText(I18nSupport.getValue("run.execution.error.suite", specification.getSpecificationName()));
+            statusLine.setStatusColor(ColorProgressBar.RED);
+            statusLine.setFraction(100d);
+
+            specification.getSelectedNode().setIcon(RepositoryViewUtils.getResultIcon(true, specification.getSelectedNode()));
+        });
+    }
+
+    /**
+     * @return True whether a specification of this execution, or of any worker of the suite, has errors.
+     */
+    private boolean hasError() {
+        return suiteScheduler != null ? suiteScheduler.hasError() : hasError;
+    }
+
+    /**
+     * Adds the results of the specification to the session and shows them in the status line and on its node.
+     */
+    private void updateStatusLine(final RemoteRunConfiguration specification, final LivingDocExecution execution) {
+
+        boolean specificationError = execution.hasException() || execution.hasFailed();
+        if (specificationError) {
             hasError = true;
         }
+        if (suiteScheduler != null) {
+            suiteScheduler.specificationFinished(specification, specificationError);
+        }
 
-        executionCounter.setTotalErrors(executionCounter.getTotalErrors() + execution.getErrors());
-        executionCounter.setFailuresCount(executionCounter.getFailuresCount() + execution.getFailures());
-        executionCounter.setFinishedTestsCount(executionCounter.getFinishedTestsCount() + execution.getSuccess());
-        executionCounter.setIgnoreTestsCount(executionCounter.getIgnoreTestsCount() + execution.getIgnored());
+        executionRun.add(execution);
 
         SwingUtilities.invokeLater(() -> {
 
-            if (hasError) {
+            ExecutionSession.Snapshot snapshot = executionSession.snapshot();
+
+            if (hasError()) {
                 runConfiguration.getStatusLine().setStatusColor(ColorProgressBar.RED);
 
-            } else if (executionCounter.getIgnoreTestsCount() >= 1 || executionCounter.getFailuresCount() >= 1 || executionCounter.getTotalErrors() >= 1) {
+            } else if (snapshot.getIgnored() >= 1 || snapshot.getFailures() >= 1 || snapshot.getErrors() >= 1) {
                 runConfiguration.getStatusLine().setStatusColor(ColorProgressBar.YELLOW);
 
             } else {
@@ -116,38 +535,36 @@ public class ProcessListenerLivingDoc extends ProcessAdapter {
                 toolWindow.activate(null);
             }
 
-            int testsTotal = executionCounter.getFinishedTestsCount() + executionCounter.getTotalErrors()
-                    + executionCounter.getFailuresCount() + executionCounter.getIgnoreTestsCount();
-
-            Long duration = executionCounter.getEndTime() - executionCounter.getStartTime();
-
             statusLine.formatTestMessage(
-                    testsTotal,
-                    executionCounter.getFinishedTestsCount(),
-                    executionCounter.getFailuresCount(),
-                    executionCounter.getIgnoreTestsCount(),
-                    duration,
-                    executionCounter.getEndTime());
+                    snapshot.getTestsTotal(),
+                    snapshot.getSuccess(),
+                    snapshot.getFailures(),
+                    snapshot.getIgnored(),
+                    snapshot.getDuration(),
+                    snapshot.getEndTime());
 
-            statusLine.setFraction(1d);
+            statusLine.setFraction(executionProgress.getFraction());
 
-            runConfiguration.getSelectedNode().setIcon(RepositoryViewUtils.getResultIcon(hasError, runConfiguration.getSelectedNode()));
+            specification.getSelectedNode().setIcon(RepositoryViewUtils.getResultIcon(specificationError, specification.getSelectedNode()));
         });
     }
 
-    private LivingDocExecution getLivingDocExecution() throws IOException, LivingDocException {
+    private LivingDocExecution getLivingDocExecution(final RemoteRunConfiguration specification) throws IOException, LivingDocException {
 
-        File reportFile = livingDocFilesManager.createReportFile();
+        FilesManager filesManager = new FilesManager(specification);
 
-        LivingDocConnector livingDocConnector = LivingDocConnector.newInstance(ProjectSettings.getInstance(runConfiguration.getProject()));
-        return livingDocConnector.getSpecificationExecution(runConfiguration, reportFile);
+        LivingDocConnector livingDocConnector = LivingDocConnectorService.getInstance(runConfiguration.getProject()).getConnector();
+        return livingDocConnector.getSpecificationExecution(specification, filesManager.createReportFile(), filesManager.createResultFile());
     }
 
-    private File loadResultFile(final LivingDocExecution execution) throws IOException {
+    private File loadResultFile(final RemoteRunConfiguration specification, final LivingDocExecution execution) throws IOException {
 
-        File resultFile = livingDocFilesManager.createResultFile();
+        File resultFile = new FilesManager(specification).createResultFile();
 
         String content = execution.hasException() ? execution.getExecutionErrorId() : execution.getResults();
+        if (content == null && resultFile.length() > 0) {
+            return resultFile;
+        }
         if (StringUtils.isEmpty(content)) {
             content = I18nSupport.getValue("run.execution.error.no.response");
         }
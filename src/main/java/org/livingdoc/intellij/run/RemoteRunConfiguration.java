@@ -18,9 +18,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.livingdoc.intellij.common.I18nSupport;
-import org.livingdoc.intellij.domain.ExecutionCounter;
 import org.livingdoc.intellij.domain.SpecificationNode;
 import org.livingdoc.intellij.gui.runconfiguration.RunConfigurationEditor;
+import org.livingdoc.intellij.gui.toolwindows.ResultsPanel;
 
 /**
  * A named run configuration which can be executed. <br>
@@ -45,9 +45,14 @@ public class RemoteRunConfiguration extends ApplicationConfiguration {
     private boolean currentVersion;
 
     private TestStatusLine statusLine;
-    private ExecutionCounter executionCounter;
+    private ExecutionSession executionSession;
+    private ExecutionProgress executionProgress;
+    private ResultsPanel resultsPanel;
     private SpecificationNode selectedNode;
 
+    private SuiteScheduler suiteScheduler;
+    private final String executionId = FilesManager.newExecutionId();
+
 
     public RemoteRunConfiguration(final Project project, final ConfigurationFactory factory, final String name) {
         super(name, project, factory);
@@ -152,11 +157,54 @@ public class RemoteRunConfiguration extends ApplicationConfiguration {
         this.selectedNode = selectedNode;
     }
 
-    public ExecutionCounter getExecutionCounter() {
-        return this.executionCounter;
+    /**
+     * @return True whether this configuration is a worker that runs the specifications of its
+     * {@link #getSuiteScheduler()} in the same JVM, instead of its own specification.
+     */
+    public boolean isSuite() {
+        return suiteScheduler != null;
+    }
+
+    /**
+     * @return The queue shared by the workers of a suite execution. Null whether this is not a suite.
+     */
+    @Nullable
+    public SuiteScheduler getSuiteScheduler() {
+        return suiteScheduler;
+    }
+
+    public void setSuiteScheduler(@Nullable final SuiteScheduler suiteScheduler) {
+        this.suiteScheduler = suiteScheduler;
+    }
+
+    /**
+     * @return Identifier of the files of this execution, see {@link FilesManager}.
+     */
+    public String getExecutionId() {
+        return executionId;
+    }
+
+    public ExecutionSession getExecutionSession() {
+        return this.executionSession;
+    }
+
+    public void setExecutionSession(ExecutionSession executionSession) {
+        this.executionSession = executionSession;
+    }
+
+    public ResultsPanel getResultsPanel() {
+        return resultsPanel;
+    }
+
+    public void setResultsPanel(ResultsPanel resultsPanel) {
+        this.resultsPanel = resultsPanel;
+    }
+
+    public ExecutionProgress getExecutionProgress() {
+        return executionProgress;
     }
 
-    public void setExecutionCounter(ExecutionCounter executionCounter) {
-        this.executionCounter = executionCounter;
+    public void setExecutionProgress(ExecutionProgress executionProgress) {
+        this.executionProgress = executionProgress;
     }
 }
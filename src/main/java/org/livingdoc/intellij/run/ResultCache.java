@@ -0,0 +1,187 @@
+package org.livingdoc.intellij.run;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.OrderEnumerator;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.common.PluginProperties;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reports of the last green execution of each specification, stored under the IDE system directory, to skip the
+ * specifications that have not changed since.<br>
+ * Each report is kept with the fingerprint of what the execution depended on: the printed specification document,
+ * the classpath of the module with its compiled classes, and the system under development settings. A specification
+ * whose fingerprint is the same is reported from the kept report instead of being run. Any other execution removes
+ * the kept report.
+ *
+ * @see ProcessListenerLivingDoc
+ */
+class ResultCache {
+
+    private static final Logger LOG = Logger.getInstance(ResultCache.class);
+
+    private static final int MAGIC = 0x4C445243; // LDRC
+    private static final int FORMAT_VERSION = 1;
+
+    private final File directory;
+
+
+    ResultCache(@NotNull final File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return The cache of the IDE system directory.
+     */
+    static ResultCache getInstance() {
+        return new ResultCache(new File(PathManager.getSystemPath(), PluginProperties.getValue("livingdoc.dir.cache.results")));
+    }
+
+    /**
+     * @param specificationFile The printed specification document.
+     * @param moduleFingerprint See {@link #getModuleFingerprint(Module)}.
+     * @param sudClassName      System under development class of the module.
+     * @param sudArgs           Its arguments.
+     * @return The fingerprint of an execution of the specification.
+     * @throws IOException Whether the specification cannot be read.
+     */
+    static String getFingerprint(@NotNull final File specificationFile, @NotNull final String moduleFingerprint,
+                                 final String sudClassName, final String sudArgs) throws IOException {
+
+        MessageDigest digest = DigestUtils.getSha1Digest();
+        try (InputStream input = Files.newInputStream(specificationFile.toPath())) {
+            DigestUtils.updateDigest(digest, input);
+        }
+        digest.update(String.join("\n", "", moduleFingerprint, StringUtils.defaultString(sudClassName),
+                StringUtils.defaultString(sudArgs)).getBytes(StandardCharsets.UTF_8));
+        return DigestUtils.sha1Hex(digest.digest());
+    }
+
+    /**
+     * The classpath of the module, with its dependencies and compiled classes. The files are not read: their path,
+     * size and modification time are enough to tell that they have changed.
+     *
+     * @return The fingerprint of the code that a specification of the module can run.
+     */
+    static String getModuleFingerprint(@NotNull final Module module) {
+
+        List<String> paths = ReadAction.compute(() -> OrderEnumerator.orderEntries(module).recursively().getPathsList().getPathList());
+        return getClasspathFingerprint(paths);
+    }
+
+    /**
+     * @param paths Classpath entries: jars and directories of classes.
+     * @return The fingerprint of the classes of the entries, from the path, size and modification time of their files.
+     */
+    static String getClasspathFingerprint(@NotNull final List<String> paths) {
+
+        MessageDigest digest = DigestUtils.getSha1Digest();
+        for (String path : paths) {
+
+            File root = new File(path);
+            if (root.isDirectory()) {
+                try (Stream<Path> files = Files.walk(root.toPath())) {
+                    for (Path file : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                        update(digest, file.toFile());
+                    }
+                } catch (IOException | UncheckedIOException e) {
+                    LOG.warn("The classpath directory " + path + " has not been read.", e);
+                    update(digest, root);
+                }
+            } else {
+                update(digest, root);
+            }
+        }
+        return DigestUtils.sha1Hex(digest.digest());
+    }
+
+    /**
+     * Copies the kept report to the report file, whether it was kept with the same fingerprint.
+     *
+     * @param key         Specification, see {@link ExecutionHistory#getKey(String, String, boolean)}.
+     * @param fingerprint See {@link #getFingerprint(File, String, String, String)}.
+     * @param reportFile  Report file of the specification.
+     * @return True whether the report has been copied.
+     */
+    boolean restore(@NotNull final String key, @NotNull final String fingerprint, @NotNull final File reportFile) {
+
+        File file = getFile(key);
+        if (!file.isFile()) {
+            return false;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION || !fingerprint.equals(input.readUTF())) {
+                return false;
+            }
+            Files.copy(input, reportFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+
+        } catch (IOException ioe) {
+            LOG.warn("The kept report " + file.getName() + " has not been read.", ioe);
+            return false;
+        }
+    }
+
+    /**
+     * Keeps the report of a green execution.
+     */
+    void store(@NotNull final String key, @NotNull final String fingerprint, @NotNull final File reportFile) {
+
+        File file = getFile(key);
+        File tempFile = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(fingerprint);
+                Files.copy(reportFile.toPath(), output);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        } catch (IOException ioe) {
+            LOG.warn("The report of " + reportFile.getName() + " has not been kept.", ioe);
+
+        } finally {
+            if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+                LOG.warn("The file " + tempFile.getName() + " has not been deleted.");
+            }
+        }
+    }
+
+    /**
+     * Removes the kept report, after an execution that is not green.
+     */
+    void invalidate(@NotNull final String key) {
+
+        File file = getFile(key);
+        if (file.exists() && !file.delete()) {
+            LOG.warn("The kept report " + file.getName() + " has not been deleted.");
+        }
+    }
+
+    private File getFile(final String key) {
+        return new File(directory, DigestUtils.sha1Hex(key) + ".bin");
+    }
+
+    private static void update(final MessageDigest digest, final File file) {
+        digest.update((file.getPath() + "\n" + file.length() + "\n" + file.lastModified() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,24 +1,40 @@
 package org.livingdoc.intellij.run;
 
 import com.intellij.execution.ExecutionException;
+import com.intellij.execution.ExecutionResult;
+import com.intellij.execution.Executor;
 import com.intellij.execution.configurations.JavaCommandLineState;
 import com.intellij.execution.configurations.JavaParameters;
+import com.intellij.execution.executors.DefaultRunExecutor;
 import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.execution.process.ProcessAdapter;
 import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessTerminatedListener;
 import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.runners.ProgramRunner;
 import com.intellij.execution.util.JavaParametersUtil;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.progress.util.ColorProgressBar;
+import com.intellij.util.PathUtil;
 import org.jetbrains.annotations.NotNull;
+import org.livingdoc.intellij.common.PluginProperties;
 import org.livingdoc.intellij.connector.LivingDocConnector;
+import org.livingdoc.intellij.connector.LivingDocConnectorService;
 import org.livingdoc.intellij.domain.ProjectSettings;
+import org.livingdoc.intellij.run.remote.RunnerDaemon;
+import org.livingdoc.intellij.run.remote.SuiteMain;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Command line initialization and environment configuration:<br>
- * <code>livingdoc [options] input output</code>
+ * <code>livingdoc [options] input output</code><br>
+ * A suite worker runs many specifications in the same JVM with {@link SuiteMain}:<br>
+ * <code>SuiteMain - [options]</code><br>
+ * Or in a warm {@link RunnerDaemon} of the {@link RunnerDaemonPool}, when it is enabled.<br>
+ * The other runners share the classes of their classpath through a {@link ClassDataSharing} archive, when it is enabled.
  *
  * @see JavaCommandLineState
  * @see RemoteRunConfiguration
@@ -29,6 +45,9 @@ class RunProfileStateLivingDoc extends JavaCommandLineState {
 
     private final RemoteRunConfiguration runConfiguration;
     private final FilesManager livingDocFileManager;
+    private final boolean daemon;
+    private boolean processStarted;
+    private ClassDataSharing.Launch classDataSharing = ClassDataSharing.Launch.NONE;
 
     RunProfileStateLivingDoc(@NotNull ExecutionEnvironment executionEnvironment) {
 
@@ -37,23 +56,64 @@ class RunProfileStateLivingDoc extends JavaCommandLineState {
         //noinspection ConstantConditions
         this.runConfiguration = (RemoteRunConfiguration) executionEnvironment.getRunnerAndConfigurationSettings().getConfiguration();
         this.livingDocFileManager = new FilesManager(runConfiguration);
+
+        // A daemon JVM cannot be debugged: it has been started without the debugger agent.
+        this.daemon = runConfiguration.isSuite() && ProjectSettings.getInstance(runConfiguration.getProject()).isRunnerDaemon()
+                && DefaultRunExecutor.EXECUTOR_ID.equals(executionEnvironment.getExecutor().getId());
     }
 
     @Override
     protected JavaParameters createJavaParameters() throws ExecutionException {
 
-        final JavaParameters javaParameters = addLivingDocProgramParameterList();
+        final JavaParameters javaParameters = runConfiguration.isSuite() ? addSuiteProgramParameterList() : addLivingDocProgramParameterList();
 
         final int classPathType = JavaParameters.JDK_AND_CLASSES_AND_TESTS;
         final String jreHome = runConfiguration.ALTERNATIVE_JRE_PATH_ENABLED ? runConfiguration.ALTERNATIVE_JRE_PATH : null;
-        JavaParametersUtil.configureModule(runConfiguration.getConfigurationModule(), javaParameters, classPathType, jreHome);
+        ModuleParametersCache.getInstance().configureModule(runConfiguration.getConfigurationModule(), javaParameters, classPathType, jreHome);
         JavaParametersUtil.configureConfiguration(javaParameters, runConfiguration);
 
-        javaParameters.setMainClass(runConfiguration.MAIN_CLASS_NAME);
+        if (runConfiguration.isSuite()) {
+            // SuiteMain is not in the module classpath: it is loaded from the runner jar of the plugin.
+            javaParameters.getClassPath().add(getRunnerJarPath());
+            javaParameters.setMainClass(daemon ? RunnerDaemon.class.getName() : SuiteMain.class.getName());
+
+        } else {
+            javaParameters.setMainClass(runConfiguration.MAIN_CLASS_NAME);
+        }
+
+        if (ProjectSettings.getInstance(runConfiguration.getProject()).isClassDataSharing()) {
+            if (daemon) {
+                // A daemon outlives its archive options: it is not started again when they change.
+                LOG.info("LivingDoc class data sharing skipped for " + runConfiguration.getName() + ": it runs in a daemon.");
+            } else {
+                classDataSharing = ClassDataSharing.getInstance().configure(javaParameters);
+            }
+        }
 
         return javaParameters;
     }
 
+    /**
+     * A suite worker whose process fails to start is released from its {@link SuiteScheduler}: it would never end
+     * otherwise, and the suite would never close. A training run that fails to start leaves the archive of its
+     * classpath to the next runner.
+     */
+    @Override
+    public ExecutionResult execute(@NotNull final Executor executor, @NotNull final ProgramRunner runner) throws ExecutionException {
+        try {
+            return super.execute(executor, runner);
+
+        } catch (ExecutionException | RuntimeException e) {
+            if (!processStarted) {
+                ClassDataSharing.getInstance().trainingCancelled(classDataSharing);
+                if (runConfiguration.getSuiteScheduler() != null) {
+                    new ProcessListenerLivingDoc(runConfiguration).workerNotStarted();
+                }
+            }
+            throw e;
+        }
+    }
+
     /**
      * {@link ProcessListenerLivingDoc#startNotified(ProcessEvent)} is the listener method for <code>osProcessHandler.startNotify()</code>
      */
@@ -61,12 +121,49 @@ class RunProfileStateLivingDoc extends JavaCommandLineState {
     @Override
     protected OSProcessHandler startProcess() throws ExecutionException {
 
-        OSProcessHandler osProcessHandler = super.startProcess();
-        osProcessHandler.addProcessListener(new ProcessListenerLivingDoc(runConfiguration));
+        OSProcessHandler osProcessHandler;
+        if (daemon) {
+            Process session = RunnerDaemonPool.getInstance().openSession(runConfiguration.getProject(), getJavaParameters());
+            osProcessHandler = new OSProcessHandler(session, RunnerDaemon.class.getSimpleName(), StandardCharsets.UTF_8);
+            ProcessTerminatedListener.attach(osProcessHandler);
+
+        } else {
+            osProcessHandler = super.startProcess();
+        }
+        osProcessHandler.addProcessListener(new ProcessListenerLivingDoc(runConfiguration, classDataSharing.getMode()));
+        if (classDataSharing.getMode() == ClassDataSharing.Mode.TRAINING) {
+            final ClassDataSharing.Launch training = classDataSharing;
+            osProcessHandler.addProcessListener(new ProcessAdapter() {
+
+                @Override
+                public void processTerminated(ProcessEvent event) {
+                    ClassDataSharing.getInstance().trainingEnded(training);
+                }
+            });
+        }
+        processStarted = true;
         osProcessHandler.startNotify(); //  start capturing the process output
         return osProcessHandler;
     }
 
+    /**
+     * The runner jar holds only the {@link SuiteMain} and {@link RunnerDaemon} classes, so the libraries of the plugin
+     * do not shadow the dependencies of the module. It is next to the plugin jar.
+     *
+     * @return The path of the runner jar, or the one of the plugin classes whether the runner jar is missing.
+     */
+    @NotNull
+    private static String getRunnerJarPath() {
+
+        String pluginPath = PathUtil.getJarPathForClass(SuiteMain.class);
+        File runnerJar = new File(new File(pluginPath).getParentFile(), PluginProperties.getValue("livingdoc.runner.jar"));
+        if (runnerJar.isFile()) {
+            return runnerJar.getAbsolutePath();
+        }
+        LOG.warn("The runner jar " + runnerJar.getName() + " is missing: the plugin classes are added to the classpath.");
+        return pluginPath;
+    }
+
     /**
      * <p>To override the default System Under Development class (used for fixture classes instantiation).<br>
      * The library with the specified class should be in the same directory as the runner. </p>
@@ -91,6 +188,27 @@ class RunProfileStateLivingDoc extends JavaCommandLineState {
         return javaParameters;
     }
 
+    /**
+     * The worker reads the specifications from its standard input, fed by {@link ProcessListenerLivingDoc} from the
+     * {@link SuiteScheduler}. The options follow and are applied to every specification.<br>
+     * A daemon worker reads them from its session instead, see {@link RunnerDaemonPool}.
+     */
+    private JavaParameters addSuiteProgramParameterList() {
+
+        JavaParameters javaParameters = new JavaParameters();
+
+        if (daemon) {
+            RunnerDaemonPool.addDaemonParameters(javaParameters);
+        } else {
+            javaParameters.getProgramParametersList().add(SuiteMain.STANDARD_INPUT);
+        }
+
+        // Generate XML report (defaults to plain)
+        javaParameters.getProgramParametersList().add("--xml");
+
+        return javaParameters;
+    }
+
     @NotNull
     private String getReportOutputPath() throws IOException {
         File reportFile = livingDocFileManager.createReportFile();
@@ -110,7 +228,7 @@ class RunProfileStateLivingDoc extends JavaCommandLineState {
         try {
             File specificationFile = livingDocFileManager.createSpecificationFile();
 
-            LivingDocConnector livingDocConnector = LivingDocConnector.newInstance(ProjectSettings.getInstance(runConfiguration.getProject()));
+            LivingDocConnector livingDocConnector = LivingDocConnectorService.getInstance(runConfiguration.getProject()).getConnector();
             livingDocConnector.printSpecification(runConfiguration, specificationFile);
 
             return specificationFile;
@@ -0,0 +1,354 @@
+package org.livingdoc.intellij.run;
+
+import com.intellij.ProjectTopics;
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.JavaParameters;
+import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.compiler.CompilationStatusListener;
+import com.intellij.openapi.compiler.CompileContext;
+import com.intellij.openapi.compiler.CompilerTopics;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.Key;
+import com.intellij.util.messages.MessageBusConnection;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.common.PluginProperties;
+import org.livingdoc.intellij.run.remote.RunnerDaemon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warm runner JVMs ({@link RunnerDaemon}) reused by the executions of the same module, like the Gradle daemon.<br>
+ * A daemon is reused only with the same JDK, classpath and parameters, and by one execution at a time; more
+ * daemons are started for concurrent executions. An idle daemon is reused only whether the files of its classpath
+ * have not changed since it started, because it has already loaded the old classes: they may have been changed by an
+ * external build or a version control update. The daemons of a project are also stopped when its module roots
+ * change, and as soon as a compilation has changed the files of their classpath. A compilation that has not changed
+ * them keeps the daemons warm.<br>
+ * The daemons stop by themselves when they are idle, after a number of specifications or when they use too much
+ * memory.<br>
+ * NOTE: The limits are configured in <b>config.properties</b>
+ */
+public final class RunnerDaemonPool {
+
+    private static final Logger LOG = Logger.getInstance(RunnerDaemonPool.class);
+
+    private static RunnerDaemonPool instance;
+
+    private final List<Daemon> daemons = new ArrayList<>();
+    private final Set<Project> subscribedProjects = Collections.newSetFromMap(new WeakHashMap<>());
+
+
+    private RunnerDaemonPool() {
+        // Singleton.
+    }
+
+    public static synchronized RunnerDaemonPool getInstance() {
+
+        if (instance == null) {
+            instance = new RunnerDaemonPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Adds the daemon options to the program parameters: <code>idleSeconds maxRuns maxMemoryPercent</code>
+     *
+     * @param javaParameters Parameters of the daemon, before the runner options.
+     */
+    static void addDaemonParameters(@NotNull final JavaParameters javaParameters) {
+
+        javaParameters.getProgramParametersList().add(PluginProperties.getValue("livingdoc.daemon.idle.seconds"));
+        javaParameters.getProgramParametersList().add(PluginProperties.getValue("livingdoc.daemon.max.runs"));
+        javaParameters.getProgramParametersList().add(PluginProperties.getValue("livingdoc.daemon.max.memory.percent"));
+    }
+
+    /**
+     * Opens a session with an idle daemon for these parameters, starting a new one whether there is none.
+     *
+     * @param project          Project of the execution.
+     * @param daemonParameters Parameters of the daemon JVM.
+     * @return The session, as a process that ends when the daemon has run all the specifications written to it.
+     * @throws ExecutionException If the daemon does not start or does not accept the session.
+     */
+    Process openSession(@NotNull final Project project, @NotNull final JavaParameters daemonParameters) throws ExecutionException {
+
+        subscribe(project);
+        String key = getKey(daemonParameters);
+
+        for (Daemon daemon = acquire(key); daemon != null; daemon = acquire(key)) {
+            if (isChanged(daemon)) {
+                LOG.info("The classpath of the LivingDoc daemon on port " + daemon.port + " has changed: it is stopped.");
+                stop(daemon);
+                continue;
+            }
+            try {
+                return connect(daemon);
+
+            } catch (IOException ioe) {
+                LOG.info("The LivingDoc daemon on port " + daemon.port + " is not available: " + ioe.getMessage());
+                stop(daemon);
+            }
+        }
+
+        Daemon daemon = start(project, key, daemonParameters);
+        try {
+            return connect(daemon);
+
+        } catch (IOException ioe) {
+            stop(daemon);
+            throw new ExecutionException(ioe);
+        }
+    }
+
+    /**
+     * Stops the daemons of a project: the idle ones now, the busy ones when their session ends.
+     */
+    public synchronized void invalidate(@NotNull final Project project) {
+
+        for (Daemon daemon : new ArrayList<>(daemons)) {
+            if (daemon.project == project) {
+                invalidate(daemon);
+            }
+        }
+    }
+
+    /**
+     * Stops the daemons of a project whose classpath files have changed since they started. The files are not read,
+     * see {@link ResultCache#getClasspathFingerprint(List)}.
+     */
+    void invalidateChanged(@NotNull final Project project) {
+
+        List<Daemon> projectDaemons;
+        synchronized (this) {
+            projectDaemons = new ArrayList<>(daemons);
+        }
+        for (Daemon daemon : projectDaemons) {
+            if (daemon.project == project && isChanged(daemon)) {
+                invalidate(daemon);
+            }
+        }
+    }
+
+    /**
+     * @return True whether the files of the classpath of the daemon have changed since it started.
+     */
+    private static boolean isChanged(final Daemon daemon) {
+        return !daemon.classpathFingerprint.equals(ResultCache.getClasspathFingerprint(daemon.classPath));
+    }
+
+    private synchronized void invalidate(final Daemon daemon) {
+
+        if (daemon.busy) {
+            daemon.stale = true;
+        } else if (daemons.contains(daemon)) {
+            stop(daemon);
+        }
+    }
+
+    /**
+     * Stops all the daemons.
+     */
+    public synchronized void dispose() {
+
+        for (Daemon daemon : new ArrayList<>(daemons)) {
+            stop(daemon);
+        }
+    }
+
+    @Nullable
+    private synchronized Daemon acquire(final String key) {
+
+        for (Daemon daemon : daemons) {
+            if (!daemon.busy && !daemon.stale && daemon.key.equals(key)) {
+                daemon.busy = true;
+                return daemon;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void release(final Daemon daemon, final int exitValue) {
+
+        daemon.busy = false;
+        if (exitValue != 0 || daemon.stale) {
+            // The session was cancelled: the daemon may still be running its specification.
+            stop(daemon);
+        }
+    }
+
+    private synchronized void stop(final Daemon daemon) {
+
+        daemons.remove(daemon);
+        daemon.processHandler.destroyProcess();
+    }
+
+    private Process connect(final Daemon daemon) throws IOException {
+
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.port);
+        try {
+            OutputStream output = socket.getOutputStream();
+            output.write((daemon.token + "\n").getBytes(StandardCharsets.UTF_8));
+            output.flush();
+
+            return new DaemonSessionProcess(socket, exitValue -> release(daemon, exitValue));
+
+        } catch (IOException ioe) {
+            socket.close();
+            throw ioe;
+        }
+    }
+
+    private Daemon start(final Project project, final String key, final JavaParameters daemonParameters) throws ExecutionException {
+
+        String token = UUID.randomUUID().toString();
+        // Taken before the daemon loads its classes.
+        List<String> classPath = ModuleParametersCache.expandClasspathJars(daemonParameters.getClassPath().getPathList());
+        String classpathFingerprint = ResultCache.getClasspathFingerprint(classPath);
+
+        Map<String, String> environment = new HashMap<>(daemonParameters.getEnv());
+        environment.put(RunnerDaemon.TOKEN_VARIABLE, token);
+        daemonParameters.setEnv(environment);
+
+        OSProcessHandler processHandler = new OSProcessHandler(daemonParameters.toCommandLine());
+        CompletableFuture<Integer> port = new CompletableFuture<>();
+
+        processHandler.addProcessListener(new ProcessAdapter() {
+
+            @Override
+            public void onTextAvailable(ProcessEvent event, Key outputType) {
+
+                String text = event.getText();
+                if (text.startsWith(RunnerDaemon.LISTENING)) {
+                    port.complete(Integer.valueOf(text.substring(RunnerDaemon.LISTENING.length()).trim()));
+                } else {
+                    LOG.debug(text);
+                }
+            }
+
+            @Override
+            public void processTerminated(ProcessEvent event) {
+
+                port.completeExceptionally(new ExecutionException("The LivingDoc daemon ended with exit code " + event.getExitCode()));
+                synchronized (RunnerDaemonPool.this) {
+                    daemons.removeIf(daemon -> daemon.processHandler == processHandler);
+                }
+            }
+        });
+        processHandler.startNotify();
+
+        try {
+            Daemon daemon = new Daemon(project, key, classPath, classpathFingerprint, processHandler,
+                    port.get(Long.parseLong(PluginProperties.getValue("livingdoc.daemon.start.timeout.seconds")), TimeUnit.SECONDS), token);
+            daemon.busy = true;
+            synchronized (this) {
+                daemons.add(daemon);
+            }
+            LOG.info("LivingDoc daemon started on port " + daemon.port);
+            return daemon;
+
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            processHandler.destroyProcess();
+            throw new ExecutionException(ie);
+
+        } catch (java.util.concurrent.ExecutionException | TimeoutException e) {
+            processHandler.destroyProcess();
+            throw new ExecutionException(e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private synchronized void subscribe(final Project project) {
+
+        if (!subscribedProjects.add(project)) {
+            return;
+        }
+        MessageBusConnection connection = project.getMessageBus().connect(project);
+
+        connection.subscribe(CompilerTopics.COMPILATION_STATUS, new CompilationStatusListener() {
+
+            @Override
+            public void compilationFinished(boolean aborted, int errors, int warnings, CompileContext compileContext) {
+                ApplicationManager.getApplication().executeOnPooledThread(() -> invalidateChanged(project));
+            }
+
+            @Override
+            public void automakeCompilationFinished(int errors, int warnings, CompileContext compileContext) {
+                ApplicationManager.getApplication().executeOnPooledThread(() -> invalidateChanged(project));
+            }
+        });
+        connection.subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootListener() {
+
+            @Override
+            public void rootsChanged(ModuleRootEvent event) {
+                invalidate(project);
+            }
+        });
+        Disposer.register(project, () -> invalidate(project));
+    }
+
+    /**
+     * @return Identifies the daemons that can run these parameters: same JDK, classpath and parameters.
+     */
+    private static String getKey(final JavaParameters javaParameters) {
+
+        return DigestUtils.sha1Hex(String.join("\n",
+                String.valueOf(javaParameters.getJdk() != null ? javaParameters.getJdk().getHomePath() : null),
+                String.valueOf(javaParameters.getWorkingDirectory()),
+                javaParameters.getClassPath().getPathsString(),
+                javaParameters.getVMParametersList().getParametersString(),
+                javaParameters.getProgramParametersList().getParametersString(),
+                javaParameters.getMainClass()));
+    }
+
+    /**
+     * A daemon JVM. Its state is guarded by the pool.
+     */
+    private static final class Daemon {
+
+        private final Project project;
+        private final String key;
+        private final List<String> classPath;
+        private final String classpathFingerprint;
+        private final OSProcessHandler processHandler;
+        private final int port;
+        private final String token;
+
+        private boolean busy;
+        private boolean stale;
+
+        private Daemon(final Project project, final String key, final List<String> classPath, final String classpathFingerprint,
+                       final OSProcessHandler processHandler, final int port, final String token) {
+            this.project = project;
+            this.key = key;
+            this.classPath = classPath;
+            this.classpathFingerprint = classpathFingerprint;
+            this.processHandler = processHandler;
+            this.port = port;
+            this.token = token;
+        }
+    }
+}
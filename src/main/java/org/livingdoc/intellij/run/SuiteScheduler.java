@@ -0,0 +1,356 @@
+package org.livingdoc.intellij.run;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.livingdoc.intellij.common.PluginProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Work queue shared by the workers of a suite execution. Every worker is a runner JVM that takes the next
+ * specification whenever it finished the previous one, so a slow specification never holds back the others.<br>
+ * Specifications can be added while the workers are already running, until the queue is {@link #close() closed}:
+ * the workers wait for them.<br>
+ * The queued specifications are taken longest first, by their expected duration, so a long specification does not
+ * start last and keep a single worker running while the others are idle. Specifications without expected duration
+ * are taken in order. When the last worker ends, the makespan of the suite is logged next to the one predicted from
+ * the expected durations.<br>
+ * A few specifications are taken from the queue in advance and downloaded while the workers run theirs: this
+ * lookahead is shared, so any idle worker takes the next specification, downloaded or not, still longest first.<br>
+ * It also keeps the state shared by the workers: whether any specification has errors, and the number of
+ * running workers.
+ *
+ * @see ProcessListenerLivingDoc
+ */
+public class SuiteScheduler {
+
+    private static final Logger LOG = Logger.getInstance(SuiteScheduler.class);
+
+    private static final long POLL_MILLIS = 100L;
+
+    /**
+     * Specifications not taken yet, and the ones downloading in advance. Guarded by this scheduler.
+     */
+    private final PriorityQueue<Queued> specifications = new PriorityQueue<>();
+    private final PriorityQueue<Queued> lookahead = new PriorityQueue<>();
+    private final int lookaheadLimit;
+    private final AtomicInteger totalSpecifications = new AtomicInteger();
+    private final List<Long> expectedDurations = new ArrayList<>();
+    private volatile boolean closed = false;
+
+    private final int workers;
+    private final AtomicInteger startedWorkers = new AtomicInteger();
+    private final AtomicInteger runningWorkers;
+    private final AtomicLong startTime = new AtomicLong();
+    private final AtomicBoolean hasError = new AtomicBoolean();
+
+    private volatile SpecificationListener listener;
+    private String moduleFingerprint;
+
+
+    /**
+     * Creates an open queue. The specifications are added with {@link #add(RemoteRunConfiguration)}.
+     *
+     * @param workers Number of workers that will take specifications from the queue.
+     */
+    public SuiteScheduler(final int workers) {
+        this(workers, Integer.parseInt(PluginProperties.getValue("livingdoc.suite.prefetch")));
+    }
+
+    /**
+     * @param workers        Number of workers that will take specifications from the queue.
+     * @param lookaheadLimit Number of specifications downloaded in advance.
+     */
+    SuiteScheduler(final int workers, final int lookaheadLimit) {
+        this.workers = workers;
+        this.lookaheadLimit = lookaheadLimit;
+        this.runningWorkers = new AtomicInteger(workers);
+    }
+
+    /**
+     * Number of workers for a suite, bounded by the number of specifications.
+     *
+     * @param configuredWorkers Configured number of workers. Zero or less for the available processors.
+     * @param specifications    Number of specifications of the suite.
+     * @return A number of workers between one and <code>specifications</code>.
+     */
+    public static int getWorkerCount(final int configuredWorkers, final int specifications) {
+
+        int workers = configuredWorkers > 0 ? configuredWorkers : Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(workers, specifications));
+    }
+
+    /**
+     * Adds a specification without expected duration to an open queue.
+     *
+     * @return False whether the queue is closed or there are no running workers to take it.
+     */
+    public boolean add(@NotNull final RemoteRunConfiguration specification) {
+        return add(specification, 0L);
+    }
+
+    /**
+     * Adds a specification to an open queue.
+     *
+     * @param expectedMillis Expected duration of the specification, see {@link DurationEstimator}.
+     * @return False whether the queue is closed or there are no running workers to take it.
+     */
+    public synchronized boolean add(@NotNull final RemoteRunConfiguration specification, final long expectedMillis) {
+
+        if (closed || runningWorkers.get() == 0) {
+            LOG.warn("The specification " + specification.getSpecificationName() + " has not been queued.");
+            return false;
+        }
+        specifications.add(new Queued(specification, expectedMillis, totalSpecifications.incrementAndGet()));
+        expectedDurations.add(expectedMillis);
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * No more specifications will be added: the workers end when the queue is empty.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * @return True whether the queue is closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Takes the next specification to run, waiting for it while the queue is open. It is the first one of the queue
+     * or of the lookahead, longest first, and its download is started whether it is not downloading yet. Then the
+     * lookahead is filled up with the next specifications of the queue, for any worker.
+     *
+     * @param downloader Starts downloading a specification and completes with its line for
+     *                   {@link org.livingdoc.intellij.run.remote.SuiteMain}. It must not block: it is called under
+     *                   the lock of the scheduler.
+     * @return The next specification, or null whether the queue is closed and empty.
+     */
+    @Nullable
+    synchronized Download nextSpecification(@NotNull final Function<RemoteRunConfiguration, CompletableFuture<String>> downloader) {
+
+        try {
+            while (true) {
+                boolean wasClosed = closed;
+                Queued next = takeFirst();
+                if (next != null) {
+                    startDownload(next, downloader);
+                    while (lookahead.size() < lookaheadLimit && !specifications.isEmpty()) {
+                        Queued ahead = specifications.poll();
+                        startDownload(ahead, downloader);
+                        lookahead.add(ahead);
+                    }
+                    return new Download(next.specification, next.line);
+                }
+                if (wasClosed) {
+                    return null;
+                }
+                wait(POLL_MILLIS);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * @return The first specification of the queue or of the lookahead, or null whether both are empty.
+     */
+    private Queued takeFirst() {
+
+        Queued queued = specifications.peek();
+        Queued ahead = lookahead.peek();
+        if (ahead != null && (queued == null || ahead.compareTo(queued) < 0)) {
+            return lookahead.poll();
+        }
+        return specifications.poll();
+    }
+
+    private static void startDownload(final Queued queued, final Function<RemoteRunConfiguration, CompletableFuture<String>> downloader) {
+
+        if (queued.line == null) {
+            queued.line = downloader.apply(queued.specification);
+        }
+    }
+
+    /**
+     * @return Identifier of a new worker, starting with one.
+     */
+    int workerStarted() {
+
+        startTime.compareAndSet(0L, System.currentTimeMillis());
+        return startedWorkers.incrementAndGet();
+    }
+
+    /**
+     * @return The specifications that no worker will run, whether it was the last running worker.
+     */
+    synchronized List<RemoteRunConfiguration> workerTerminated() {
+
+        List<RemoteRunConfiguration> abandoned = new ArrayList<>();
+        if (runningWorkers.decrementAndGet() == 0) {
+            closed = true;
+            List<Queued> queued = new ArrayList<>(lookahead);
+            queued.addAll(specifications);
+            lookahead.clear();
+            specifications.clear();
+            for (Queued entry : queued) {
+                if (entry.line != null) {
+                    entry.line.cancel(true);
+                }
+                abandoned.add(entry.specification);
+            }
+
+            long[] durations = expectedDurations.stream().mapToLong(Long::longValue).toArray();
+            LOG.info("Suite of " + durations.length + " specifications on " + workers + " workers: predicted makespan "
+                    + getMakespan(durations, workers) + " ms, actual makespan " + (System.currentTimeMillis() - startTime.get())
+                    + " ms (including the start of the workers).");
+        }
+        return abandoned;
+    }
+
+    /**
+     * Predicts the makespan of a suite whose specifications are taken longest first by the workers.
+     *
+     * @param durations Expected duration of each specification.
+     * @param workers   Number of workers.
+     * @return Time until the last worker has finished, without the start of the workers.
+     */
+    static long getMakespan(@NotNull final long[] durations, final int workers) {
+
+        long[] sorted = durations.clone();
+        Arrays.sort(sorted);
+
+        PriorityQueue<Long> loads = new PriorityQueue<>();
+        for (int worker = 0; worker < Math.max(1, workers); worker++) {
+            loads.add(0L);
+        }
+        long makespan = 0L;
+        for (int index = sorted.length - 1; index >= 0; index--) {
+            long load = loads.poll() + sorted[index];
+            makespan = Math.max(makespan, load);
+            loads.add(load);
+        }
+        return makespan;
+    }
+
+    /**
+     * Notifies the listener that a specification has finished, or will not be run.
+     */
+    void specificationFinished(@NotNull final RemoteRunConfiguration specification, final boolean error) {
+
+        if (error) {
+            hasError.set(true);
+        }
+        SpecificationListener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.finished(specification, error);
+        }
+    }
+
+    /**
+     * @return True whether a specification of the suite has an exception or has failed.
+     */
+    boolean hasError() {
+        return hasError.get();
+    }
+
+    /**
+     * @param fingerprint Computes the fingerprint of the module, only the first time.
+     * @return The fingerprint of the module, shared by the workers.
+     * @see ResultCache#getModuleFingerprint(com.intellij.openapi.module.Module)
+     */
+    synchronized String getModuleFingerprint(@NotNull final Supplier<String> fingerprint) {
+
+        if (moduleFingerprint == null) {
+            moduleFingerprint = fingerprint.get();
+        }
+        return moduleFingerprint;
+    }
+
+    /**
+     * @return Number of specifications added to the queue.
+     */
+    public int getTotalSpecifications() {
+        return totalSpecifications.get();
+    }
+
+    public void setListener(@Nullable final SpecificationListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * A queued specification: the longest expected first, then in queue order.
+     */
+    private static final class Queued implements Comparable<Queued> {
+
+        private final RemoteRunConfiguration specification;
+        private final long expectedMillis;
+        private final long sequence;
+        private CompletableFuture<String> line;
+
+        private Queued(final RemoteRunConfiguration specification, final long expectedMillis, final long sequence) {
+            this.specification = specification;
+            this.expectedMillis = expectedMillis;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(@NotNull final Queued other) {
+
+            int byDuration = Long.compare(other.expectedMillis, expectedMillis);
+            return byDuration != 0 ? byDuration : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * A specification taken from the queue and its line for {@link org.livingdoc.intellij.run.remote.SuiteMain},
+     * completed when it has been downloaded.
+     */
+    static final class Download {
+
+        private final RemoteRunConfiguration specification;
+        private final CompletableFuture<String> line;
+
+        private Download(final RemoteRunConfiguration specification, final CompletableFuture<String> line) {
+            this.specification = specification;
+            this.line = line;
+        }
+
+        RemoteRunConfiguration getSpecification() {
+            return specification;
+        }
+
+        CompletableFuture<String> getLine() {
+            return line;
+        }
+    }
+
+    /**
+     * Receives the specification results of a suite, from the worker threads.
+     */
+    @FunctionalInterface
+    public interface SpecificationListener {
+
+        /**
+         * @param specification The finished specification.
+         * @param error         True whether it has an exception, has failed or has not been run.
+         */
+        void finished(@NotNull RemoteRunConfiguration specification, boolean error);
+    }
+}
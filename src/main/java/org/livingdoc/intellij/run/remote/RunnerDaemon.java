@@ -0,0 +1,123 @@
+package org.livingdoc.intellij.run.remote;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Main class of a warm runner JVM, reused by many executions of the same module and classpath.<br>
+ * <code>RunnerDaemon idleSeconds maxRuns maxMemoryPercent [options]</code>
+ * <ul>
+ * <li><i>idleSeconds</i>: The daemon ends whether it receives no session for this time.</li>
+ * <li><i>maxRuns</i>: The daemon ends after the session in which it reached this number of specifications.</li>
+ * <li><i>maxMemoryPercent</i>: The daemon ends after a session whether its used heap is over this percentage of the
+ * maximum heap.</li>
+ * <li><i>options</i>: LivingDoc runner options, applied to every specification.</li>
+ * </ul>
+ * On start-up it listens on a local port and prints <code>{@value #LISTENING} port</code> to the standard output.
+ * Each connection is a session: the first line must be the token of the environment variable
+ * <code>{@value #TOKEN_VARIABLE}</code>, sent within {@value #TOKEN_TIMEOUT_MILLIS} ms, and the next lines follow the {@link SuiteMain} protocol. The session output,
+ * including the output of the fixtures, is sent back over the connection, which is closed when the client has
+ * closed its side and the last specification has finished.
+ * <br><br>
+ * NOTE: This class runs in the classpath of the module, not in the IDE. It must only depend on the JDK and the
+ * LivingDoc runner.
+ */
+public final class RunnerDaemon {
+
+    public static final String LISTENING = "##livingdoc[daemon]";
+    public static final String TOKEN_VARIABLE = "LIVINGDOC_DAEMON_TOKEN";
+
+    static final int TOKEN_TIMEOUT_MILLIS = 10000;
+
+    private static final int PERCENT = 100;
+
+    private RunnerDaemon() {
+        // Main class.
+    }
+
+    public static void main(final String[] args) throws IOException {
+
+        int idleMillis = Integer.parseInt(args[0]) * 1000;
+        int maxRuns = Integer.parseInt(args[1]);
+        int maxMemoryPercent = Integer.parseInt(args[2]);
+        List<String> options = Arrays.asList(args).subList(3, args.length);
+        String token = System.getenv(TOKEN_VARIABLE);
+
+        PrintStream standardOut = System.out;
+        PrintStream standardErr = System.err;
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+
+            serverSocket.setSoTimeout(idleMillis);
+            standardOut.println(LISTENING + " " + serverSocket.getLocalPort());
+            standardOut.flush();
+
+            int runs = 0;
+            while (runs < maxRuns && !isMemoryExceeded(maxMemoryPercent)) {
+
+                try (Socket socket = serverSocket.accept()) {
+                    runs += runSession(socket, token, options, TOKEN_TIMEOUT_MILLIS);
+
+                } catch (SocketTimeoutException ste) {
+                    standardOut.println("Idle timeout. LivingDoc daemon stopped.");
+                    break;
+
+                } finally {
+                    System.setOut(standardOut);
+                    System.setErr(standardErr);
+                }
+            }
+        }
+        // The fixtures may have started non-daemon threads.
+        System.exit(0);
+    }
+
+    /**
+     * @param tokenTimeoutMillis Maximum time to wait for the token, so a connection that sends nothing does not hold
+     *                           the daemon.
+     * @return Number of specifications run in the session.
+     */
+    static int runSession(final Socket socket, final String token, final List<String> options, final int tokenTimeoutMillis)
+            throws IOException {
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        socket.setSoTimeout(tokenTimeoutMillis);
+        try {
+            if (token == null || !token.equals(reader.readLine())) {
+                return 0;
+            }
+        } catch (SocketTimeoutException ste) {
+            return 0;
+        }
+        // The specifications are handed out as the workers need them.
+        socket.setSoTimeout(0);
+
+        OutputStream output = socket.getOutputStream();
+        PrintStream sessionOut = new PrintStream(output, true, StandardCharsets.UTF_8.name());
+        System.setOut(sessionOut);
+        System.setErr(sessionOut);
+
+        int runs = SuiteMain.runLines(reader, options);
+
+        sessionOut.flush();
+        socket.shutdownOutput();
+        return runs;
+    }
+
+    static boolean isMemoryExceeded(final int maxMemoryPercent) {
+
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used * PERCENT > runtime.maxMemory() * maxMemoryPercent;
+    }
+}
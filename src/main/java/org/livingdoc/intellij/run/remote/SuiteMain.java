@@ -0,0 +1,153 @@
+package org.livingdoc.intellij.run.remote;
+
+import info.novatec.testit.livingdoc.runner.CommandLineRunner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Main class of the forked JVM for the suite executions: it runs many specifications one after another in the same
+ * JVM, so the JVM startup and the fixture class loading are paid only once.<br>
+ * <code>SuiteMain suiteFile [options]</code>
+ * <ul>
+ * <li><i>suiteFile</i>: One line per specification with the specification path and the report path, separated by a
+ * tab. With <code>{@value #STANDARD_INPUT}</code> the lines are read from the standard input until it is closed, so
+ * the plugin can hand out the specifications of a work queue one by one.</li>
+ * <li><i>options</i>: LivingDoc runner options, applied to every specification.</li>
+ * </ul>
+ * Before each specification a line <code>{@value #STARTED} index</code> is printed to the standard output, and after
+ * it a line <code>{@value #FINISHED} index status</code>, where <i>index</i> is the position of the line, starting
+ * with zero. The markers are recognized anywhere in a line: the output of a specification may not end with a line
+ * separator.
+ * <br><br>
+ * NOTE: This class runs in the classpath of the module, not in the IDE. It must only depend on the JDK and the
+ * LivingDoc runner.
+ */
+public final class SuiteMain {
+
+    public static final String STARTED = "##livingdoc[started]";
+    public static final String FINISHED = "##livingdoc[finished]";
+    public static final String STATUS_OK = "ok";
+    public static final String STATUS_ERROR = "error";
+    public static final String STANDARD_INPUT = "-";
+
+    private SuiteMain() {
+        // Main class.
+    }
+
+    public static void main(final String[] args) throws IOException {
+
+        List<String> options = Arrays.asList(args).subList(1, args.length);
+
+        if (STANDARD_INPUT.equals(args[0])) {
+            runLines(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), options);
+
+        } else {
+            List<String> specifications = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+            for (int index = 0; index < specifications.size(); index++) {
+                runLine(options, index, specifications.get(index));
+            }
+        }
+    }
+
+    /**
+     * Runs the specification of each line read, until the end of the input.
+     *
+     * @return Number of specifications run.
+     */
+    static int runLines(final BufferedReader reader, final List<String> options) throws IOException {
+
+        int index = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (!line.isEmpty()) {
+                runLine(options, index++, line);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Formats a line of the suite: <code>specificationPath TAB reportPath</code>
+     */
+    public static String formatLine(final String specificationPath, final String reportPath) {
+        return specificationPath + "\t" + reportPath;
+    }
+
+    private static void runLine(final List<String> options, final int index, final String line) {
+
+        String[] paths = line.split("\t");
+
+        System.out.println(STARTED + " " + index);
+        System.out.flush();
+
+        boolean success = runSpecification(options, paths[0], paths[1]);
+
+        System.out.println(FINISHED + " " + index + " " + (success ? STATUS_OK : STATUS_ERROR));
+        System.out.flush();
+    }
+
+    /**
+     * Runs a specification with the LivingDoc runner: <code>livingdoc [options] input output</code>
+     *
+     * @return False whether the runner has thrown an exception.
+     */
+    static boolean runSpecification(final List<String> options, final String specificationPath, final String reportPath) {
+
+        List<String> arguments = new ArrayList<>(options);
+        arguments.add(specificationPath);
+        arguments.add(reportPath);
+
+        try {
+            new CommandLineRunner(System.out).run(arguments.toArray(new String[0]));
+            return true;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Parses a line printed by {@link #main(String[])} before each specification.
+     *
+     * @param line A line of the standard output, with the output of the previous specification before the marker
+     *             whether it did not end with a line separator.
+     * @return The index of the started specification, or -1 whether the line is not a {@value #STARTED} line.
+     */
+    public static int parseStartedIndex(final String line) {
+        return parseIndex(STARTED, line);
+    }
+
+    /**
+     * Parses a line printed by {@link #main(String[])} after each specification.
+     *
+     * @param line A line of the standard output, with the output of the specification before the marker whether it
+     *             did not end with a line separator.
+     * @return The index of the finished specification, or -1 whether the line is not a {@value #FINISHED} line.
+     */
+    public static int parseFinishedIndex(final String line) {
+        return parseIndex(FINISHED, line);
+    }
+
+    private static int parseIndex(final String marker, final String line) {
+
+        int start = line != null ? line.lastIndexOf(marker + " ") : -1;
+        if (start < 0) {
+            return -1;
+        }
+        String[] tokens = line.substring(start).trim().split(" ");
+        try {
+            return tokens.length > 1 ? Integer.parseInt(tokens[1]) : -1;
+
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
+    }
+}
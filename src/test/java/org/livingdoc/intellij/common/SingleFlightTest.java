@@ -0,0 +1,77 @@
+package org.livingdoc.intellij.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+    @Test
+    public void concurrentCallsShareOneExecution() throws Exception {
+
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(0L);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = PluginExecutors.newBoundedExecutor("Test", 4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    executions.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return 42;
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                Assert.assertEquals(Integer.valueOf(42), result.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, executions.get());
+            Assert.assertEquals(0, singleFlight.size());
+
+        } finally {
+            PluginExecutors.release(executor);
+        }
+    }
+
+    @Test
+    public void retainedResult() throws Exception {
+
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(TimeUnit.SECONDS.toMillis(10));
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("key", executions::incrementAndGet);
+        singleFlight.execute("key", executions::incrementAndGet);
+        singleFlight.execute("other", executions::incrementAndGet);
+
+        Assert.assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void failuresAreNotRetained() throws Exception {
+
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(TimeUnit.SECONDS.toMillis(10));
+
+        try {
+            singleFlight.execute("key", () -> {
+                throw new IOException("down");
+            });
+            Assert.fail();
+
+        } catch (IOException ioe) {
+            Assert.assertEquals("down", ioe.getMessage());
+        }
+        Assert.assertEquals(Integer.valueOf(1), singleFlight.execute("key", () -> 1));
+    }
+}
@@ -0,0 +1,113 @@
+package org.livingdoc.intellij.connector;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.livingdoc.intellij.common.PluginExecutors;
+import org.livingdoc.intellij.connector.livingdoc.LivingDocConnectorImpl;
+import org.livingdoc.intellij.domain.LivingDocException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class AsyncLivingDocConnectorTest {
+
+    private ExecutorService executor;
+    private CountDownLatch interrupted;
+
+
+    @Before
+    public void setUp() {
+        executor = PluginExecutors.newBoundedExecutor("Test", 2);
+        interrupted = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        PluginExecutors.release(executor);
+    }
+
+    @Test
+    public void getAllProjects() throws Exception {
+
+        AsyncLivingDocConnector connector = new AsyncLivingDocConnector(new SlowConnector(0), executor);
+
+        Assert.assertEquals(Collections.singletonList("project"), connector.getAllProjects().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void exceptionCompletesTheFuture() throws Exception {
+
+        AsyncLivingDocConnector connector = new AsyncLivingDocConnector(new SlowConnector(0), executor);
+
+        try {
+            connector.getSystemUnderTestsForProject("project").get(5, TimeUnit.SECONDS);
+            Assert.fail();
+
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof LivingDocException);
+        }
+    }
+
+    @Test
+    public void deadlineInterruptsTheCall() throws Exception {
+
+        AsyncLivingDocConnector connector = new AsyncLivingDocConnector(new SlowConnector(10000), executor)
+                .withDeadline(50, TimeUnit.MILLISECONDS);
+
+        try {
+            connector.getAllProjects().get(5, TimeUnit.SECONDS);
+            Assert.fail();
+
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancelInterruptsTheCall() throws Exception {
+
+        AsyncLivingDocConnector connector = new AsyncLivingDocConnector(new SlowConnector(10000), executor);
+
+        CompletableFuture<Collection<String>> future = connector.getAllProjects();
+        Thread.sleep(50);
+        future.cancel(true);
+
+        Assert.assertTrue(future.isCancelled());
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    private class SlowConnector extends LivingDocConnectorImpl {
+
+        private final long delay;
+
+        SlowConnector(final long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public Collection<String> getAllProjects() throws LivingDocException {
+            try {
+                Thread.sleep(delay);
+
+            } catch (InterruptedException ie) {
+                interrupted.countDown();
+                throw new LivingDocException(ie);
+            }
+            return Collections.singletonList("project");
+        }
+
+        @Override
+        public Collection<String> getSystemUnderTestsForProject(final String projectName) throws LivingDocException {
+            throw new LivingDocException();
+        }
+    }
+}
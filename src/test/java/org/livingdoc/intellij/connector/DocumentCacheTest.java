@@ -0,0 +1,107 @@
+package org.livingdoc.intellij.connector;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DocumentCacheTest {
+
+    private static final String SERVER_URL = "http://localhost:1990/confluence";
+    private static final String REPOSITORY_UID = "Confluence-SPACE";
+    private static final long TTL = TimeUnit.MINUTES.toMillis(10);
+
+    private File directory;
+    private AtomicInteger downloads;
+
+
+    @Before
+    public void setUp() throws IOException {
+
+        directory = Files.createTempDirectory("livingdoc-documents").toFile();
+        directory.deleteOnExit();
+        downloads = new AtomicInteger();
+    }
+
+    @Test
+    public void hitWithinTtl() throws Exception {
+
+        DocumentCache cache = new DocumentCache(directory, 1024L);
+
+        Assert.assertEquals("spec", get(cache, "Spec", false, TTL, "spec"));
+        Assert.assertEquals("spec", get(cache, "Spec", false, TTL, "spec"));
+
+        Assert.assertEquals(1, downloads.get());
+        Assert.assertEquals(1, cache.getStatistics().getHits());
+        Assert.assertEquals(1, cache.getStatistics().getMisses());
+
+        // The other version is another document.
+        get(cache, "Spec", true, TTL, "working");
+        Assert.assertEquals(2, downloads.get());
+    }
+
+    @Test
+    public void revalidationAfterTtl() throws Exception {
+
+        DocumentCache cache = new DocumentCache(directory, 1024L);
+
+        get(cache, "Spec", false, 1L, "spec");
+        Thread.sleep(5L);
+        get(cache, "Spec", false, 1L, "spec");
+
+        Assert.assertEquals(2, downloads.get());
+        Assert.assertEquals(1, cache.getStatistics().getRevalidations());
+
+        Thread.sleep(5L);
+        Assert.assertEquals("changed", get(cache, "Spec", false, 1L, "changed"));
+        Assert.assertEquals(2, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedEviction() throws Exception {
+
+        DocumentCache cache = new DocumentCache(directory, 10L);
+
+        get(cache, "A", false, TTL, "12345");
+        get(cache, "B", false, TTL, "12345");
+        get(cache, "A", false, TTL, "12345");
+        get(cache, "C", false, TTL, "12345");
+
+        Assert.assertEquals(1, cache.getStatistics().getEvictions());
+        Assert.assertEquals(10L, cache.getStatistics().getSizeBytes());
+
+        // B was evicted, A is still cached.
+        get(cache, "A", false, TTL, "12345");
+        Assert.assertEquals(3, downloads.get());
+        get(cache, "B", false, TTL, "12345");
+        Assert.assertEquals(4, downloads.get());
+    }
+
+    @Test
+    public void invalidate() throws Exception {
+
+        DocumentCache cache = new DocumentCache(directory, 1024L);
+
+        get(cache, "Spec", false, TTL, "spec");
+        cache.invalidate(SERVER_URL, REPOSITORY_UID, "Spec");
+        get(cache, "Spec", false, TTL, "spec");
+
+        Assert.assertEquals(2, downloads.get());
+    }
+
+    private String get(final DocumentCache cache, final String specificationName, final boolean currentVersion,
+                       final long ttl, final String content) throws Exception {
+
+        byte[] result = cache.getDocument(SERVER_URL, REPOSITORY_UID, specificationName, currentVersion, ttl, () -> {
+            downloads.incrementAndGet();
+            return content.getBytes(StandardCharsets.UTF_8);
+        });
+        return new String(result, StandardCharsets.UTF_8);
+    }
+}
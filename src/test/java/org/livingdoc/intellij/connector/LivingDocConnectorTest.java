@@ -0,0 +1,55 @@
+package org.livingdoc.intellij.connector;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+import org.livingdoc.intellij.connector.livingdoc.LivingDocConnectorImpl;
+import org.livingdoc.intellij.domain.LivingDocException;
+import org.livingdoc.intellij.domain.SpecificationNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LivingDocConnectorTest {
+
+    @Test
+    public void tagDocumentsAsImplemented() throws Exception {
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        LivingDocConnector connector = new LivingDocConnectorImpl() {
+            @Override
+            public void tagDocumentAsImplemented(@NotNull final SpecificationNode specificationNode) throws LivingDocException {
+
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ie) {
+                    throw new LivingDocException(ie);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                if (specificationNode.getNodeName().startsWith("KO")) {
+                    throw new LivingDocException();
+                }
+            }
+        };
+
+        List<SpecificationNode> specificationNodes = Arrays.asList(new SpecificationNode("OK 1", null),
+                new SpecificationNode("KO 2", null), new SpecificationNode("OK 3", null),
+                new SpecificationNode("OK 4", null), new SpecificationNode("OK 5", null));
+        List<String> tagged = new ArrayList<>();
+
+        Map<SpecificationNode, LivingDocException> errors = connector.tagDocumentsAsImplemented(specificationNodes, 2,
+                (specificationNode, error) -> tagged.add(specificationNode.getNodeName()));
+
+        Assert.assertEquals(5, tagged.size());
+        Assert.assertEquals(1, errors.size());
+        Assert.assertTrue(errors.containsKey(specificationNodes.get(1)));
+        Assert.assertTrue(maxInFlight.get() <= 2);
+    }
+}
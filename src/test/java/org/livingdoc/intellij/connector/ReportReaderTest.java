@@ -0,0 +1,68 @@
+package org.livingdoc.intellij.connector;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.livingdoc.intellij.domain.LivingDocExecution;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ReportReaderTest {
+
+    private Path reportFile;
+    private Path resultFile;
+
+
+    @Before
+    public void setUp() throws IOException {
+
+        reportFile = Files.createTempFile("report", ".xml");
+        resultFile = Files.createTempFile("results", ".html");
+        reportFile.toFile().deleteOnExit();
+        resultFile.toFile().deleteOnExit();
+    }
+
+    @Test
+    public void statisticsAndResults() throws Exception {
+
+        write("<documents><document>"
+                + "<time-statistics><execution>10</execution><total>12</total></time-statistics>"
+                + "<statistics><success>3</success><failure>1</failure><error>0</error><ignored>2</ignored></statistics>"
+                + "<results><![CDATA[<html><body>Résultats</body></html>]]></results>"
+                + "</document></documents>");
+
+        LivingDocExecution execution = ReportReader.read(reportFile, resultFile);
+
+        Assert.assertEquals(3, execution.getSuccess());
+        Assert.assertEquals(1, execution.getFailures());
+        Assert.assertEquals(0, execution.getErrors());
+        Assert.assertEquals(2, execution.getIgnored());
+        Assert.assertTrue(execution.hasFailed());
+        Assert.assertFalse(execution.hasException());
+        Assert.assertNull(execution.getResults());
+        Assert.assertEquals("<html><body>Résultats</body></html>", new String(Files.readAllBytes(resultFile), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void globalException() throws Exception {
+
+        write("<documents><document>"
+                + "<statistics><success>0</success><failure>0</failure><error>0</error><ignored>0</ignored></statistics>"
+                + "<global-exception><![CDATA[java.lang.ClassNotFoundException: Fixture]]></global-exception>"
+                + "</document></documents>");
+
+        LivingDocExecution execution = ReportReader.read(reportFile, resultFile);
+
+        Assert.assertTrue(execution.hasException());
+        Assert.assertFalse(execution.hasFailed());
+        Assert.assertEquals("java.lang.ClassNotFoundException: Fixture", execution.getExecutionErrorId());
+        Assert.assertEquals(0L, Files.size(resultFile));
+    }
+
+    private void write(final String report) throws IOException {
+        Files.write(reportFile, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + report).getBytes(StandardCharsets.UTF_8));
+    }
+}
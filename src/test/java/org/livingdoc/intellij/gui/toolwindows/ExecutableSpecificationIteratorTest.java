@@ -0,0 +1,71 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.livingdoc.intellij.domain.ModuleNode;
+import org.livingdoc.intellij.domain.Node;
+import org.livingdoc.intellij.domain.RepositoryNode;
+import org.livingdoc.intellij.domain.SpecificationNode;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExecutableSpecificationIteratorTest {
+
+    @Test
+    public void executableSpecificationsInTreeOrder() {
+
+        ModuleNode moduleNode = new ModuleNode("module", "module");
+        DefaultMutableTreeNode moduleTreeNode = new DefaultMutableTreeNode(moduleNode);
+
+        RepositoryNode repositoryNode = new RepositoryNode("repository");
+        DefaultMutableTreeNode repositoryTreeNode = new DefaultMutableTreeNode(repositoryNode);
+        moduleTreeNode.add(repositoryTreeNode);
+
+        DefaultMutableTreeNode folder = addSpecification(repositoryTreeNode, "folder", false);
+        addSpecification(folder, "first", true);
+        DefaultMutableTreeNode second = addSpecification(folder, "second", true);
+        addSpecification(second, "third", true);
+        addSpecification(repositoryTreeNode, "fourth", true);
+
+        List<String> names = new ArrayList<>();
+        new ExecutableSpecificationIterator(moduleTreeNode, null).forEachRemaining(node -> names.add(node.getNodeName()));
+
+        Assert.assertEquals("[first, second, third, fourth]", names.toString());
+    }
+
+    @Test
+    public void selectedSpecificationIsIncluded() {
+
+        DefaultMutableTreeNode repositoryTreeNode = new DefaultMutableTreeNode(new RepositoryNode("repository"));
+        DefaultMutableTreeNode specification = addSpecification(repositoryTreeNode, "specification", true);
+
+        Assert.assertTrue(new ExecutableSpecificationIterator(specification, null).hasNext());
+        Assert.assertFalse(new ExecutableSpecificationIterator(addSpecification(repositoryTreeNode, "folder", false), null).hasNext());
+    }
+
+    @Test
+    public void selectedSpecificationRunsWithoutItsChildPages() {
+
+        DefaultMutableTreeNode repositoryTreeNode = new DefaultMutableTreeNode(new RepositoryNode("repository"));
+        DefaultMutableTreeNode specification = addSpecification(repositoryTreeNode, "specification", true);
+        addSpecification(specification, "child", true);
+
+        List<String> names = new ArrayList<>();
+        new ExecutableSpecificationIterator(specification, null).forEachRemaining(node -> names.add(node.getNodeName()));
+
+        Assert.assertEquals("[specification]", names.toString());
+    }
+
+    private static DefaultMutableTreeNode addSpecification(final DefaultMutableTreeNode parent, final String name,
+                                                           final boolean executable) {
+
+        SpecificationNode specificationNode = new SpecificationNode(name, (Node) parent.getUserObject());
+        specificationNode.setExecutable(executable);
+
+        DefaultMutableTreeNode treeNode = new DefaultMutableTreeNode(specificationNode);
+        parent.add(treeNode);
+        return treeNode;
+    }
+}
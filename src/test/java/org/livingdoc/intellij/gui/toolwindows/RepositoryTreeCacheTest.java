@@ -0,0 +1,95 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.livingdoc.intellij.domain.DocumentEntry;
+import org.livingdoc.intellij.domain.ModuleNode;
+import org.livingdoc.intellij.domain.RepositoryNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RepositoryTreeCacheTest {
+
+    private static final String SERVER_URL = "http://localhost:1990/confluence";
+
+    private RepositoryTreeCache cache;
+    private ModuleNode moduleNode;
+    private RepositoryNode repositoryNode;
+
+
+    @Before
+    public void setUp() throws IOException {
+
+        File directory = Files.createTempDirectory("livingdoc-tree").toFile();
+        directory.deleteOnExit();
+        cache = new RepositoryTreeCache(directory);
+
+        moduleNode = new ModuleNode("module [sut]", "module");
+        moduleNode.setProject("project");
+        moduleNode.setSystemUnderTest("sut");
+
+        repositoryNode = new RepositoryNode("project");
+        repositoryNode.setUid("Confluence-SPACE");
+        repositoryNode.setName("SPACE");
+        repositoryNode.setTypeClassName("info.novatec.testit.livingdoc.repository.LivingDocRepository");
+    }
+
+    @Test
+    public void missingSnapshot() {
+
+        Assert.assertNull(cache.loadRepositories(SERVER_URL, moduleNode));
+        Assert.assertNull(cache.loadHierarchy(SERVER_URL, moduleNode, repositoryNode));
+    }
+
+    @Test
+    public void saveAndLoadRepositories() {
+
+        long before = System.currentTimeMillis();
+        cache.saveRepositories(SERVER_URL, moduleNode, Collections.singletonList(repositoryNode));
+
+        RepositoryTreeCache.Snapshot<List<RepositoryNode>> snapshot = cache.loadRepositories(SERVER_URL, moduleNode);
+
+        Assert.assertNotNull(snapshot);
+        Assert.assertTrue(snapshot.getTimestamp() >= before);
+        Assert.assertEquals(1, snapshot.getValue().size());
+
+        RepositoryNode result = snapshot.getValue().get(0);
+        Assert.assertEquals("project", result.getNodeName());
+        Assert.assertEquals("Confluence-SPACE", result.getUid());
+        Assert.assertEquals("SPACE", result.getName());
+        Assert.assertNull(result.getBaseTestUrl());
+        Assert.assertEquals(repositoryNode.getTypeClassName(), result.getTypeClassName());
+
+        // Another server means another snapshot.
+        Assert.assertNull(cache.loadRepositories("http://other/confluence", moduleNode));
+    }
+
+    @Test
+    public void saveAndLoadHierarchy() {
+
+        DocumentEntry folder = new DocumentEntry("Folder", false, false);
+        folder.setChildren(Arrays.asList(new DocumentEntry("Child 1", true, true), new DocumentEntry("Child 2", true, false)));
+        DocumentEntry specification = new DocumentEntry("Specification", true, false);
+
+        cache.saveHierarchy(SERVER_URL, moduleNode, repositoryNode, Arrays.asList(folder, specification));
+
+        RepositoryTreeCache.Snapshot<List<DocumentEntry>> snapshot = cache.loadHierarchy(SERVER_URL, moduleNode, repositoryNode);
+
+        Assert.assertNotNull(snapshot);
+        List<DocumentEntry> result = snapshot.getValue();
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("Folder", result.get(0).getTitle());
+        Assert.assertFalse(result.get(0).isExecutable());
+        Assert.assertEquals(2, result.get(0).getChildren().size());
+        Assert.assertTrue(result.get(0).getChildren().get(0).isCanBeImplemented());
+        Assert.assertFalse(result.get(0).getChildren().get(1).isCanBeImplemented());
+        Assert.assertTrue(result.get(1).isExecutable());
+        Assert.assertFalse(result.get(1).hasChildren());
+    }
+}
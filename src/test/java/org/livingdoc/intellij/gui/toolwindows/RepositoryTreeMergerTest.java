@@ -0,0 +1,183 @@
+package org.livingdoc.intellij.gui.toolwindows;
+
+import com.intellij.icons.AllIcons;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.livingdoc.intellij.common.Icons;
+import org.livingdoc.intellij.common.NodeType;
+import org.livingdoc.intellij.domain.DocumentEntry;
+import org.livingdoc.intellij.domain.ModuleNode;
+import org.livingdoc.intellij.domain.Node;
+import org.livingdoc.intellij.domain.RepositoryNode;
+import org.livingdoc.intellij.domain.SpecificationNode;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RepositoryTreeMergerTest {
+
+    private DefaultMutableTreeNode rootNode;
+    private DefaultTreeModel treeModel;
+    private RepositoryTreeMerger merger;
+    private List<String> events;
+
+
+    @Before
+    public void setUp() {
+
+        rootNode = new DefaultMutableTreeNode(new Node("project", AllIcons.Nodes.Project, NodeType.PROJECT, null));
+        treeModel = new DefaultTreeModel(rootNode, true);
+        merger = new RepositoryTreeMerger(treeModel);
+
+        merger.merge(rootNode, newModules(new DocumentEntry("A", true, false), new DocumentEntry("B", true, false)));
+
+        events = new ArrayList<>();
+        treeModel.addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(final TreeModelEvent e) {
+                events.add("changed " + Arrays.toString(e.getChildIndices()));
+            }
+
+            @Override
+            public void treeNodesInserted(final TreeModelEvent e) {
+                events.add("inserted " + Arrays.toString(e.getChildIndices()));
+            }
+
+            @Override
+            public void treeNodesRemoved(final TreeModelEvent e) {
+                events.add("removed " + Arrays.toString(e.getChildIndices()));
+            }
+
+            @Override
+            public void treeStructureChanged(final TreeModelEvent e) {
+                events.add("structure");
+            }
+        });
+    }
+
+    @Test
+    public void sameTreeKeepsNodes() {
+
+        DefaultMutableTreeNode specificationTreeNode = getRepositoryTreeNode().getFirstLeaf();
+        SpecificationNode specificationNode = (SpecificationNode) specificationTreeNode.getUserObject();
+        specificationNode.setIcon(Icons.SUCCESS);
+
+        merger.merge(rootNode, newModules(new DocumentEntry("A", true, false), new DocumentEntry("B", true, false)));
+
+        Assert.assertTrue(events.isEmpty());
+        Assert.assertSame(specificationTreeNode, getRepositoryTreeNode().getFirstLeaf());
+        Assert.assertSame(Icons.SUCCESS, specificationNode.getIcon());
+    }
+
+    @Test
+    public void insertedAndRemovedDocuments() {
+
+        DefaultMutableTreeNode specificationTreeNode = (DefaultMutableTreeNode) getRepositoryTreeNode().getChildAt(1);
+
+        merger.merge(rootNode, newModules(new DocumentEntry("B", true, false), new DocumentEntry("C", true, false)));
+
+        Assert.assertEquals(Arrays.asList("removed [0]", "inserted [1]"), events);
+        Assert.assertSame(specificationTreeNode, getRepositoryTreeNode().getChildAt(0));
+
+        SpecificationNode inserted = (SpecificationNode) ((DefaultMutableTreeNode) getRepositoryTreeNode().getChildAt(1)).getUserObject();
+        Assert.assertEquals("C", inserted.getNodeName());
+        Assert.assertSame(getRepositoryTreeNode().getUserObject(), inserted.getParent());
+    }
+
+    @Test
+    public void changedDocument() {
+
+        DefaultMutableTreeNode specificationTreeNode = getRepositoryTreeNode().getFirstLeaf();
+
+        merger.merge(rootNode, newModules(new DocumentEntry("A", true, true), new DocumentEntry("B", true, false)));
+
+        Assert.assertEquals(Collections.singletonList("changed [0]"), events);
+        Assert.assertSame(specificationTreeNode, getRepositoryTreeNode().getFirstLeaf());
+        Assert.assertTrue(((SpecificationNode) specificationTreeNode.getUserObject()).isCanBeImplemented());
+    }
+
+    @Test
+    public void reorderedDocuments() {
+
+        merger.merge(rootNode, Collections.singletonList(newModule(Arrays.asList(
+                new DocumentEntry("B", true, false), new DocumentEntry("A", true, false)), false)));
+
+        Assert.assertEquals(Collections.singletonList("structure"), events);
+        Assert.assertEquals("B", ((Node) ((DefaultMutableTreeNode) getRepositoryTreeNode().getChildAt(0)).getUserObject()).getNodeName());
+    }
+
+    @Test
+    public void lazyFolder() {
+
+        DocumentEntry folder = new DocumentEntry("Folder", false, false);
+        folder.setChildren(Arrays.asList(new DocumentEntry("Z", true, false), new DocumentEntry("Y", true, false)));
+
+        DefaultMutableTreeNode repositoryTreeNode = newLazyRepository(Collections.singletonList(folder));
+        LazyDocumentTreeNode folderTreeNode = (LazyDocumentTreeNode) repositoryTreeNode.getChildAt(0);
+
+        Assert.assertFalse(folderTreeNode.isLoaded());
+        Assert.assertTrue(folderTreeNode.getAllowsChildren());
+        Assert.assertEquals(0, folderTreeNode.getChildCount());
+
+        // Never expanded: the fresh documents are kept without painting them.
+        DocumentEntry freshFolder = new DocumentEntry("Folder", false, false);
+        freshFolder.setChildren(Collections.singletonList(new DocumentEntry("X", true, false)));
+        merger.merge(repositoryTreeNode, Collections.list(newLazyRepository(Collections.singletonList(freshFolder)).children()));
+
+        Assert.assertSame(folderTreeNode, repositoryTreeNode.getChildAt(0));
+        Assert.assertFalse(folderTreeNode.isLoaded());
+
+        folderTreeNode.loadChildren(treeModel);
+
+        Assert.assertTrue(folderTreeNode.isLoaded());
+        Assert.assertEquals(1, folderTreeNode.getChildCount());
+        Assert.assertFalse(((DefaultMutableTreeNode) folderTreeNode.getChildAt(0)).getAllowsChildren());
+    }
+
+    private static DefaultMutableTreeNode newLazyRepository(final List<DocumentEntry> documentEntries) {
+
+        DefaultMutableTreeNode repositoryTreeNode = new DefaultMutableTreeNode(new RepositoryNode("SPACE"));
+        RepositoryViewUtils.paintDocumentEntries(documentEntries, repositoryTreeNode, true);
+        return repositoryTreeNode;
+    }
+
+    private DefaultMutableTreeNode getRepositoryTreeNode() {
+        return (DefaultMutableTreeNode) rootNode.getChildAt(0).getChildAt(0);
+    }
+
+    private static List<DefaultMutableTreeNode> newModules(final DocumentEntry... documentEntries) {
+        return Collections.singletonList(newModule(Arrays.asList(documentEntries), true));
+    }
+
+    private static DefaultMutableTreeNode newModule(final List<DocumentEntry> documentEntries, final boolean sorted) {
+
+        ModuleNode moduleNode = new ModuleNode("module [sut]", "module");
+        moduleNode.setProject("project");
+        moduleNode.setSystemUnderTest("sut");
+        DefaultMutableTreeNode moduleTreeNode = new DefaultMutableTreeNode(moduleNode);
+
+        RepositoryNode repositoryNode = new RepositoryNode("SPACE");
+        repositoryNode.setUid("Confluence-SPACE");
+        repositoryNode.setName("SPACE");
+        repositoryNode.setParent(moduleNode);
+        DefaultMutableTreeNode repositoryTreeNode = new DefaultMutableTreeNode(repositoryNode);
+        moduleTreeNode.add(repositoryTreeNode);
+
+        if (sorted) {
+            RepositoryViewUtils.paintDocumentEntries(documentEntries, repositoryTreeNode);
+        } else {
+            for (DocumentEntry documentEntry : documentEntries) {
+                repositoryTreeNode.add(new DefaultMutableTreeNode(
+                        RepositoryViewUtils.newSpecificationNode(documentEntry, repositoryNode), false));
+            }
+        }
+        return moduleTreeNode;
+    }
+}
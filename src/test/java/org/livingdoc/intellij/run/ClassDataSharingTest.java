@@ -0,0 +1,88 @@
+package org.livingdoc.intellij.run;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ClassDataSharingTest {
+
+    private static final String JDK_HOME = "/usr/lib/jvm/java-13";
+    private static final String JDK_VERSION = "java version \"13.0.2\"";
+
+    @Test
+    public void supportedJdk() {
+
+        Assert.assertTrue(ClassDataSharing.isSupported(JDK_VERSION));
+        Assert.assertTrue(ClassDataSharing.isSupported("openjdk version \"17.0.1\" 2021-10-19"));
+        Assert.assertFalse(ClassDataSharing.isSupported("java version \"1.8.0_152\""));
+        Assert.assertFalse(ClassDataSharing.isSupported("java version \"11.0.2\""));
+        Assert.assertFalse(ClassDataSharing.isSupported(null));
+    }
+
+    @Test
+    public void fingerprintChangesWithClasspath() throws IOException {
+
+        File library = Files.createTempFile("library", ".jar").toFile();
+        library.deleteOnExit();
+        List<String> classPath = Collections.singletonList(library.getAbsolutePath());
+
+        String fingerprint = ClassDataSharing.getFingerprint(JDK_HOME, JDK_VERSION, classPath);
+        Assert.assertEquals(fingerprint, ClassDataSharing.getFingerprint(JDK_HOME, JDK_VERSION, classPath));
+        Assert.assertNotEquals(fingerprint, ClassDataSharing.getFingerprint("/usr/lib/jvm/java-14", JDK_VERSION, classPath));
+
+        Files.write(library.toPath(), new byte[]{1, 2, 3});
+        Assert.assertNotEquals(fingerprint, ClassDataSharing.getFingerprint(JDK_HOME, JDK_VERSION, classPath));
+    }
+
+    @Test
+    public void fingerprintReadsClasspathJar() throws IOException {
+
+        File directory = Files.createTempDirectory("livingdoc-classpath").toFile();
+        File library = Files.createTempFile("library", ".jar").toFile();
+        directory.deleteOnExit();
+        library.deleteOnExit();
+
+        File jar = ModuleParametersCache.getClasspathJar(directory, Collections.singletonList(library.getAbsolutePath()));
+        Assert.assertNotNull(jar);
+        jar.deleteOnExit();
+        List<String> classPath = Collections.singletonList(jar.getAbsolutePath());
+
+        String fingerprint = ClassDataSharing.getFingerprint(JDK_HOME, JDK_VERSION, classPath);
+        Files.write(library.toPath(), new byte[]{1, 2, 3});
+        Assert.assertNotEquals(fingerprint, ClassDataSharing.getFingerprint(JDK_HOME, JDK_VERSION, classPath));
+    }
+
+    @Test
+    public void onlyJarsAreArchivable() throws IOException {
+
+        File classes = Files.createTempDirectory("classes").toFile();
+        File library = Files.createTempFile("library", ".jar").toFile();
+        classes.deleteOnExit();
+        library.deleteOnExit();
+
+        Assert.assertTrue(ClassDataSharing.isArchivable(Collections.singletonList(library.getAbsolutePath())));
+        Assert.assertFalse(ClassDataSharing.isArchivable(Arrays.asList(library.getAbsolutePath(), classes.getAbsolutePath())));
+    }
+
+    @Test
+    public void startupWithAndWithoutArchive() throws IOException {
+
+        ClassDataSharing classDataSharing = new ClassDataSharing(Files.createTempDirectory("livingdoc-cds").toFile());
+        Assert.assertEquals(-1L, classDataSharing.getAverageStartupMillis(ClassDataSharing.Mode.SHARED));
+
+        classDataSharing.recordStartup(ClassDataSharing.Mode.TRAINING, 900L);
+        classDataSharing.recordStartup(ClassDataSharing.Mode.SHARED, 300L);
+        classDataSharing.recordStartup(ClassDataSharing.Mode.SHARED, 500L);
+        classDataSharing.recordStartup(ClassDataSharing.Mode.NONE, 50L);
+
+        Assert.assertEquals(900L, classDataSharing.getAverageStartupMillis(ClassDataSharing.Mode.TRAINING));
+        Assert.assertEquals(400L, classDataSharing.getAverageStartupMillis(ClassDataSharing.Mode.SHARED));
+        Assert.assertEquals(-1L, classDataSharing.getAverageStartupMillis(ClassDataSharing.Mode.NONE));
+    }
+}
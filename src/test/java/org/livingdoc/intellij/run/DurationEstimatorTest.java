@@ -0,0 +1,34 @@
+package org.livingdoc.intellij.run;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class DurationEstimatorTest {
+
+    @Test
+    public void expectedDurations() throws IOException {
+
+        File directory = Files.createTempDirectory("livingdoc-history").toFile();
+        directory.deleteOnExit();
+        File file = new File(directory, "project.bin");
+        file.deleteOnExit();
+
+        String known = ExecutionHistory.getKey("Confluence-SPACE", "Known", false);
+        ExecutionHistory history = new ExecutionHistory(file, 5);
+        for (long duration : new long[]{1000L, 4000L, 2000L}) {
+            history.record(new ExecutionHistory.Run(known, System.currentTimeMillis(), duration, 0L, 1, 0, 0, 0, false));
+        }
+
+        DurationEstimator estimator = new DurationEstimator(history, specification -> -1L);
+
+        // Median of the last executions, whose document size calibrates the other estimates.
+        Assert.assertEquals(2000L, estimator.getExpectedMillis(known, 1000L));
+        Assert.assertEquals(6000L, estimator.getExpectedMillis(ExecutionHistory.getKey("Confluence-SPACE", "Large", false), 3000L));
+        // Average of the previous estimates.
+        Assert.assertEquals(4000L, estimator.getExpectedMillis(ExecutionHistory.getKey("Confluence-SPACE", "Unknown", false), -1L));
+    }
+}
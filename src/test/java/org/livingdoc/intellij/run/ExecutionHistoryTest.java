@@ -0,0 +1,113 @@
+package org.livingdoc.intellij.run;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+
+public class ExecutionHistoryTest {
+
+    private static final String KEY = ExecutionHistory.getKey("Confluence-SPACE", "Specification", false);
+
+    private File file;
+
+
+    @Before
+    public void setUp() throws IOException {
+
+        File directory = Files.createTempDirectory("livingdoc-history").toFile();
+        directory.deleteOnExit();
+        file = new File(directory, "project.bin");
+        file.deleteOnExit();
+    }
+
+    @Test
+    public void emptyHistory() {
+
+        ExecutionHistory history = new ExecutionHistory(file, 5);
+
+        Assert.assertTrue(history.getLastRuns(KEY, 3).isEmpty());
+        Assert.assertEquals(-1L, history.getDurationPercentile(KEY, 50));
+        Assert.assertEquals(0d, history.getFlakiness(KEY), 0d);
+    }
+
+    @Test
+    public void queries() {
+
+        ExecutionHistory history = new ExecutionHistory(file, 5);
+        for (int duration = 100; duration <= 500; duration += 100) {
+            history.record(run(KEY, duration, duration % 200 == 0));
+        }
+
+        List<ExecutionHistory.Run> lastRuns = history.getLastRuns(KEY, 2);
+        Assert.assertEquals(2, lastRuns.size());
+        Assert.assertEquals(500L, lastRuns.get(0).getDurationMillis());
+        Assert.assertEquals(400L, lastRuns.get(1).getDurationMillis());
+
+        Assert.assertEquals(300L, history.getDurationPercentile(KEY, 50));
+        Assert.assertEquals(500L, history.getDurationPercentile(KEY, 95));
+        Assert.assertEquals(1d, history.getFlakiness(KEY), 0d);
+        Assert.assertEquals(-1L, history.getDurationPercentile(ExecutionHistory.getKey("Confluence-SPACE", "Specification", true), 50));
+    }
+
+    @Test
+    public void reloadKeepsLastRuns() {
+
+        ExecutionHistory history = new ExecutionHistory(file, 2);
+        for (int duration = 100; duration <= 1000; duration += 100) {
+            history.record(run(KEY, duration, false));
+        }
+
+        ExecutionHistory reloaded = new ExecutionHistory(file, 2);
+        List<ExecutionHistory.Run> lastRuns = reloaded.getLastRuns(KEY, 5);
+
+        Assert.assertEquals(2, lastRuns.size());
+        Assert.assertEquals(1000L, lastRuns.get(0).getDurationMillis());
+        Assert.assertEquals(900L, lastRuns.get(1).getDurationMillis());
+        Assert.assertEquals(0d, reloaded.getFlakiness(KEY), 0d);
+    }
+
+    @Test
+    public void truncatedRecordIsDropped() throws IOException {
+
+        ExecutionHistory history = new ExecutionHistory(file, 5);
+        history.record(run(KEY, 100, false));
+        history.record(run(KEY, 200, true));
+
+        try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+            truncated.setLength(truncated.length() - 3);
+        }
+
+        ExecutionHistory reloaded = new ExecutionHistory(file, 5);
+        List<ExecutionHistory.Run> lastRuns = reloaded.getLastRuns(KEY, 5);
+
+        Assert.assertEquals(1, lastRuns.size());
+        Assert.assertEquals(100L, lastRuns.get(0).getDurationMillis());
+
+        reloaded.record(run(KEY, 300, false));
+        Assert.assertEquals(2, new ExecutionHistory(file, 5).getLastRuns(KEY, 5).size());
+    }
+
+    @Test
+    public void firstRecordCreatesTheDirectory() {
+
+        File missingDirectory = new File(file.getParentFile(), "history");
+        File missingFile = new File(missingDirectory, "project.bin");
+        missingDirectory.deleteOnExit();
+        missingFile.deleteOnExit();
+
+        new ExecutionHistory(missingFile, 5).record(run(KEY, 100, false));
+
+        Assert.assertTrue(missingFile.isFile());
+        Assert.assertEquals(1, new ExecutionHistory(missingFile, 5).getLastRuns(KEY, 5).size());
+    }
+
+    private static ExecutionHistory.Run run(final String key, final long duration, final boolean failed) {
+        return new ExecutionHistory.Run(key, System.currentTimeMillis(), duration, 0L, 1, failed ? 1 : 0, 0, 0, failed);
+    }
+}
@@ -0,0 +1,23 @@
+package org.livingdoc.intellij.run;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class ExecutionProgressTest {
+
+    @Test
+    public void countRows() throws Exception {
+
+        File specificationFile = File.createTempFile("specification", ".html");
+        specificationFile.deleteOnExit();
+        Files.write(specificationFile.toPath(),
+                "<table><TR><td>a</td></TR><tr class=\"row\"><td><<tr</td></tr></table>".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals(3, ExecutionProgress.countRows(specificationFile));
+        Assert.assertEquals(0, ExecutionProgress.countRows(new File(specificationFile.getPath() + ".missing")));
+    }
+}
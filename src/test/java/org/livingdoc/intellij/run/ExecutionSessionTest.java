@@ -0,0 +1,88 @@
+package org.livingdoc.intellij.run;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.livingdoc.intellij.domain.LivingDocExecution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ExecutionSessionTest {
+
+    @Test
+    public void runsRollUpIntoTheSession() {
+
+        ExecutionSession session = new ExecutionSession();
+        ExecutionSession.Run first = session.startRun();
+        ExecutionSession.Run second = session.startRun();
+
+        session.started(1000L);
+        session.started(2000L);
+        first.add(execution(3, 1, 0, 2));
+        second.add(execution(1, 0, 1, 0));
+        session.ended(5000L);
+        session.ended(4000L);
+
+        ExecutionSession.Snapshot snapshot = session.snapshot();
+        Assert.assertEquals(4, snapshot.getSuccess());
+        Assert.assertEquals(1, snapshot.getFailures());
+        Assert.assertEquals(1, snapshot.getErrors());
+        Assert.assertEquals(2, snapshot.getIgnored());
+        Assert.assertEquals(8, snapshot.getTestsTotal());
+        Assert.assertEquals(2, snapshot.getSpecifications());
+        Assert.assertEquals(4000L, snapshot.getDuration());
+
+        Assert.assertEquals(6, first.snapshot().getTestsTotal());
+    }
+
+    @Test
+    public void concurrentRuns() throws Exception {
+
+        ExecutionSession session = new ExecutionSession();
+        int processes = 32;
+        int specifications = 1000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(processes);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int process = 0; process < processes; process++) {
+            futures.add(executor.submit(() -> {
+                ExecutionSession.Run run = session.startRun();
+                start.await();
+                for (int specification = 0; specification < specifications; specification++) {
+                    run.add(execution(2, 1, 0, 0));
+
+                    // Every specification adds twice as many successes as failures.
+                    ExecutionSession.Snapshot snapshot = session.snapshot();
+                    Assert.assertEquals(snapshot.getSuccess(), 2 * snapshot.getFailures());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        ExecutionSession.Snapshot snapshot = session.snapshot();
+        Assert.assertEquals(processes * specifications, snapshot.getSpecifications());
+        Assert.assertEquals(3 * processes * specifications, snapshot.getTestsTotal());
+    }
+
+    private static LivingDocExecution execution(final int success, final int failures, final int errors, final int ignored) {
+
+        LivingDocExecution execution = new LivingDocExecution();
+        execution.setSuccess(success);
+        execution.setFailures(failures);
+        execution.setErrors(errors);
+        execution.setIgnored(ignored);
+        return execution;
+    }
+}
@@ -0,0 +1,83 @@
+package org.livingdoc.intellij.run;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+public class FilesManagerTest {
+
+    private static final long NOW = System.currentTimeMillis();
+
+    private File directory;
+
+
+    @Before
+    public void setUp() throws IOException {
+
+        directory = Files.createTempDirectory("livingdoc-runs").toFile();
+        directory.deleteOnExit();
+    }
+
+    @Test
+    public void executionIds() {
+        Assert.assertNotEquals(FilesManager.newExecutionId(), FilesManager.newExecutionId());
+    }
+
+    @Test
+    public void rotateOldFiles() throws IOException {
+
+        File old = createFile("old.html", 10, TimeUnit.HOURS.toMillis(25));
+        File recent = createFile("recent.html", 10, TimeUnit.HOURS.toMillis(1));
+
+        Assert.assertEquals(1, FilesManager.rotate(directory, TimeUnit.HOURS.toMillis(24), 1000L, NOW));
+        Assert.assertFalse(old.exists());
+        Assert.assertTrue(recent.exists());
+    }
+
+    @Test
+    public void rotateOldestFilesBeyondTheMaximumSize() throws IOException {
+
+        File oldest = createFile("oldest.xml", 400, 3000L);
+        File older = createFile("older.xml", 400, 2000L);
+        File newest = createFile("newest.xml", 400, 1000L);
+
+        Assert.assertEquals(1, FilesManager.rotate(directory, TimeUnit.HOURS.toMillis(24), 1000L, NOW));
+        Assert.assertFalse(oldest.exists());
+        Assert.assertTrue(older.exists());
+        Assert.assertTrue(newest.exists());
+    }
+
+    @Test
+    public void rotateKeepsLiveFilesBeyondTheMaximumSize() throws IOException {
+
+        File live = createFile("specification_live_1.xml", 400, 3000L);
+        File older = createFile("specification_previous_1.xml", 400, 2000L);
+        File newest = createFile("specification_live_2.xml", 400, 1000L);
+        File tooOld = createFile("specification_live_3.xml", 10, TimeUnit.HOURS.toMillis(25));
+
+        Assert.assertEquals(2, FilesManager.rotate(directory, TimeUnit.HOURS.toMillis(24), 500L, NOW, "_live_"));
+        Assert.assertTrue(live.exists());
+        Assert.assertFalse(older.exists());
+        Assert.assertTrue(newest.exists());
+        Assert.assertFalse(tooOld.exists());
+    }
+
+    @Test
+    public void rotateMissingDirectory() {
+        Assert.assertEquals(0, FilesManager.rotate(new File(directory, "missing"), 0L, 0L, NOW));
+    }
+
+    private File createFile(final String name, final int size, final long age) throws IOException {
+
+        File file = new File(directory, name);
+        Files.write(file.toPath(), new byte[size]);
+        Assert.assertTrue(file.setLastModified(NOW - age));
+        file.deleteOnExit();
+        return file;
+    }
+}
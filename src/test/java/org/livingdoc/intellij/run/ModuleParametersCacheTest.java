@@ -0,0 +1,45 @@
+package org.livingdoc.intellij.run;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+
+public class ModuleParametersCacheTest {
+
+    @Test
+    public void classpathJar() throws IOException {
+
+        File directory = Files.createTempDirectory("livingdoc-classpath").toFile();
+        File classes = Files.createTempDirectory("classes").toFile();
+        File library = Files.createTempFile("library", ".jar").toFile();
+        directory.deleteOnExit();
+        classes.deleteOnExit();
+        library.deleteOnExit();
+
+        List<String> classPath = Arrays.asList(classes.getAbsolutePath(), library.getAbsolutePath());
+        File jar = ModuleParametersCache.getClasspathJar(directory, classPath);
+        Assert.assertNotNull(jar);
+        jar.deleteOnExit();
+
+        try (JarFile jarFile = new JarFile(jar)) {
+            String[] entries = jarFile.getManifest().getMainAttributes().getValue(Attributes.Name.CLASS_PATH).split(" ");
+
+            Assert.assertEquals(2, entries.length);
+            Assert.assertEquals(classes.toURI().toASCIIString(), entries[0]);
+            Assert.assertTrue(entries[0].endsWith("/"));
+            Assert.assertEquals(library.toURI().toASCIIString(), entries[1]);
+        }
+
+        long lastModified = jar.lastModified();
+        Assert.assertEquals(jar, ModuleParametersCache.getClasspathJar(directory, classPath));
+        Assert.assertEquals(lastModified, jar.lastModified());
+        Assert.assertNotEquals(jar, ModuleParametersCache.getClasspathJar(directory, classPath.subList(1, 2)));
+    }
+}
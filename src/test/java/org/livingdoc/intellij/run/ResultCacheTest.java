@@ -0,0 +1,66 @@
+package org.livingdoc.intellij.run;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class ResultCacheTest {
+
+    private static final String KEY = ExecutionHistory.getKey("Confluence-SPACE", "Specification", false);
+
+    private ResultCache cache;
+    private File specificationFile;
+    private File reportFile;
+
+
+    @Before
+    public void setUp() throws IOException {
+
+        File directory = Files.createTempDirectory("livingdoc-results").toFile();
+        directory.deleteOnExit();
+        cache = new ResultCache(directory);
+
+        specificationFile = Files.createTempFile("specification", ".html").toFile();
+        reportFile = Files.createTempFile("report", ".xml").toFile();
+        specificationFile.deleteOnExit();
+        reportFile.deleteOnExit();
+        Files.write(specificationFile.toPath(), "<table><tr><td>fixture</td></tr></table>".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void fingerprint() throws IOException {
+
+        String fingerprint = ResultCache.getFingerprint(specificationFile, "module", "Sud", "args");
+
+        Assert.assertEquals(fingerprint, ResultCache.getFingerprint(specificationFile, "module", "Sud", "args"));
+        Assert.assertNotEquals(fingerprint, ResultCache.getFingerprint(specificationFile, "module", "Sud", "other"));
+        Assert.assertNotEquals(fingerprint, ResultCache.getFingerprint(specificationFile, "recompiled", "Sud", "args"));
+
+        Files.write(specificationFile.toPath(), "<table></table>".getBytes(StandardCharsets.UTF_8));
+        Assert.assertNotEquals(fingerprint, ResultCache.getFingerprint(specificationFile, "module", "Sud", "args"));
+    }
+
+    @Test
+    public void restoreSameFingerprintOnly() throws IOException {
+
+        Assert.assertFalse(cache.restore(KEY, "fingerprint", reportFile));
+
+        Files.write(reportFile.toPath(), "<documents/>".getBytes(StandardCharsets.UTF_8));
+        cache.store(KEY, "fingerprint", reportFile);
+        Files.write(reportFile.toPath(), new byte[0]);
+
+        Assert.assertFalse(cache.restore(KEY, "changed", reportFile));
+        Assert.assertEquals(0L, reportFile.length());
+
+        Assert.assertTrue(cache.restore(KEY, "fingerprint", reportFile));
+        Assert.assertEquals("<documents/>", new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8));
+
+        cache.invalidate(KEY);
+        Assert.assertFalse(cache.restore(KEY, "fingerprint", reportFile));
+    }
+}
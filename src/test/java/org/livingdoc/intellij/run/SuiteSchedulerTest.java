@@ -0,0 +1,128 @@
+package org.livingdoc.intellij.run;
+
+import com.intellij.mock.MockProjectEx;
+import com.intellij.openapi.extensions.Extensions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.livingdoc.intellij.common.MockDisposable;
+import org.livingdoc.intellij.core.ConfigurationTypeLivingDoc;
+import org.livingdoc.intellij.core.RemoteConfigurationFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public class SuiteSchedulerTest {
+
+    private static final Function<RemoteRunConfiguration, CompletableFuture<String>> DOWNLOADER =
+            specification -> new CompletableFuture<>();
+
+    @Test
+    public void workerCount() {
+
+        Assert.assertEquals(4, SuiteScheduler.getWorkerCount(4, 300));
+        Assert.assertEquals(2, SuiteScheduler.getWorkerCount(4, 2));
+        Assert.assertEquals(1, SuiteScheduler.getWorkerCount(4, 0));
+        Assert.assertEquals(Math.min(Runtime.getRuntime().availableProcessors(), 300), SuiteScheduler.getWorkerCount(0, 300));
+    }
+
+    @Test
+    public void workers() {
+
+        SuiteScheduler suiteScheduler = new SuiteScheduler(2, 2);
+        suiteScheduler.close();
+
+        Assert.assertEquals(1, suiteScheduler.workerStarted());
+        Assert.assertEquals(2, suiteScheduler.workerStarted());
+        Assert.assertTrue(suiteScheduler.isClosed());
+        Assert.assertNull(suiteScheduler.nextSpecification(DOWNLOADER));
+        Assert.assertFalse(suiteScheduler.hasError());
+
+        Assert.assertTrue(suiteScheduler.workerTerminated().isEmpty());
+        Assert.assertTrue(suiteScheduler.workerTerminated().isEmpty());
+    }
+
+    @Test
+    public void lastWorkerClosesTheQueue() {
+
+        SuiteScheduler suiteScheduler = new SuiteScheduler(1, 2);
+        Assert.assertFalse(suiteScheduler.isClosed());
+
+        suiteScheduler.workerStarted();
+        Assert.assertTrue(suiteScheduler.workerTerminated().isEmpty());
+        Assert.assertTrue(suiteScheduler.isClosed());
+        Assert.assertNull(suiteScheduler.nextSpecification(DOWNLOADER));
+    }
+
+    @Test
+    public void sharedLookahead() {
+
+        RemoteRunConfiguration shortSpecification = newSpecification("short");
+        RemoteRunConfiguration longSpecification = newSpecification("long");
+        RemoteRunConfiguration lastSpecification = newSpecification("last");
+        List<RemoteRunConfiguration> downloaded = new ArrayList<>();
+        Function<RemoteRunConfiguration, CompletableFuture<String>> downloader = specification -> {
+            downloaded.add(specification);
+            return new CompletableFuture<>();
+        };
+
+        SuiteScheduler suiteScheduler = new SuiteScheduler(2, 1);
+        suiteScheduler.add(shortSpecification, 10L);
+        suiteScheduler.add(lastSpecification, 5L);
+        suiteScheduler.workerStarted();
+        suiteScheduler.workerStarted();
+
+        // Taking a specification starts the download of the next one, for any worker.
+        Assert.assertSame(shortSpecification, suiteScheduler.nextSpecification(downloader).getSpecification());
+        Assert.assertEquals(2, downloaded.size());
+
+        // A longer specification queued later goes before the downloaded one.
+        suiteScheduler.add(longSpecification, 100L);
+        Assert.assertSame(longSpecification, suiteScheduler.nextSpecification(downloader).getSpecification());
+
+        SuiteScheduler.Download last = suiteScheduler.nextSpecification(downloader);
+        Assert.assertSame(lastSpecification, last.getSpecification());
+        Assert.assertEquals(3, downloaded.size());
+        Assert.assertSame(downloaded.get(1), last.getSpecification());
+    }
+
+    @Test
+    public void lastWorkerCancelsTheLookahead() {
+
+        RemoteRunConfiguration first = newSpecification("first");
+        RemoteRunConfiguration second = newSpecification("second");
+        List<CompletableFuture<String>> lines = new ArrayList<>();
+        Function<RemoteRunConfiguration, CompletableFuture<String>> downloader = specification -> {
+            CompletableFuture<String> line = new CompletableFuture<>();
+            lines.add(line);
+            return line;
+        };
+
+        SuiteScheduler suiteScheduler = new SuiteScheduler(1, 1);
+        suiteScheduler.add(first);
+        suiteScheduler.add(second);
+        suiteScheduler.workerStarted();
+        Assert.assertSame(first, suiteScheduler.nextSpecification(downloader).getSpecification());
+
+        Assert.assertEquals(Collections.singletonList(second), suiteScheduler.workerTerminated());
+        Assert.assertTrue(lines.get(1).isCancelled());
+    }
+
+    private static RemoteRunConfiguration newSpecification(final String name) {
+
+        Extensions.registerAreaClass("IDEA_PROJECT", null);
+        RemoteConfigurationFactory factory = new RemoteConfigurationFactory(new ConfigurationTypeLivingDoc());
+        return new RemoteRunConfiguration(new MockProjectEx(new MockDisposable()), factory, name);
+    }
+
+    @Test
+    public void longestFirstMakespan() {
+
+        Assert.assertEquals(0L, SuiteScheduler.getMakespan(new long[0], 2));
+        Assert.assertEquals(12L, SuiteScheduler.getMakespan(new long[]{2, 12, 3, 4}, 2));
+        Assert.assertEquals(10L, SuiteScheduler.getMakespan(new long[]{5, 4, 3, 3, 3}, 2));
+        Assert.assertEquals(18L, SuiteScheduler.getMakespan(new long[]{5, 4, 3, 3, 3}, 0));
+    }
+}
@@ -0,0 +1,112 @@
+package org.livingdoc.intellij.run.remote;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+public class RunnerDaemonTest {
+
+    private static final String TOKEN = "token";
+
+    private PrintStream standardOut;
+    private PrintStream standardErr;
+    private String sessionOutput;
+
+
+    @Before
+    public void setUp() {
+        standardOut = System.out;
+        standardErr = System.err;
+    }
+
+    @After
+    public void tearDown() {
+        System.setOut(standardOut);
+        System.setErr(standardErr);
+    }
+
+    @Test
+    public void memoryCeiling() {
+
+        Assert.assertTrue(RunnerDaemon.isMemoryExceeded(0));
+        Assert.assertFalse(RunnerDaemon.isMemoryExceeded(100));
+    }
+
+    @Test
+    public void sessionWithWrongToken() throws IOException {
+
+        Assert.assertEquals(0, runSession("other\n" + SuiteMain.formatLine("specification.html", "report.xml") + "\n"));
+        Assert.assertEquals("", sessionOutput);
+    }
+
+    @Test
+    public void sessionWithoutToken() throws IOException {
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+             Socket session = serverSocket.accept()) {
+
+            // The client keeps its side open without sending anything.
+            Assert.assertEquals(0, RunnerDaemon.runSession(session, TOKEN, Collections.emptyList(), 100));
+            Assert.assertTrue(client.isConnected());
+        }
+    }
+
+    @Test
+    public void sessionRunsItsLines() throws IOException {
+
+        File missing = new File(System.getProperty("java.io.tmpdir"), "livingdoc-missing-specification.html");
+        File report = File.createTempFile("report", ".xml");
+        report.deleteOnExit();
+
+        Assert.assertEquals(1, runSession(TOKEN + "\n\n" + SuiteMain.formatLine(missing.getAbsolutePath(), report.getAbsolutePath()) + "\n"));
+
+        String[] lines = sessionOutput.split("\n");
+        Assert.assertEquals(0, SuiteMain.parseStartedIndex(lines[0]));
+        Assert.assertEquals(0, SuiteMain.parseFinishedIndex(lines[lines.length - 1]));
+    }
+
+    /**
+     * Sends the input over a local connection, then reads the session output until the daemon closes its side.
+     *
+     * @return Number of specifications run in the session.
+     */
+    private int runSession(final String input) throws IOException {
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+             Socket session = serverSocket.accept()) {
+
+            client.getOutputStream().write(input.getBytes(StandardCharsets.UTF_8));
+            client.shutdownOutput();
+
+            int runs = RunnerDaemon.runSession(session, TOKEN, Collections.emptyList(), RunnerDaemon.TOKEN_TIMEOUT_MILLIS);
+            System.setOut(standardOut);
+            System.setErr(standardErr);
+            if (!session.isOutputShutdown()) {
+                session.shutdownOutput();
+            }
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            InputStream clientInput = client.getInputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = clientInput.read(buffer); read >= 0; read = clientInput.read(buffer)) {
+                output.write(buffer, 0, read);
+            }
+            sessionOutput = new String(output.toByteArray(), StandardCharsets.UTF_8).replace("\r", "");
+            return runs;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.livingdoc.intellij.run.remote;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SuiteMainTest {
+
+    @Test
+    public void parseFinishedIndex() {
+
+        Assert.assertEquals(3, SuiteMain.parseFinishedIndex(SuiteMain.FINISHED + " 3 " + SuiteMain.STATUS_OK + "\n"));
+        Assert.assertEquals(0, SuiteMain.parseFinishedIndex(SuiteMain.FINISHED + " 0 " + SuiteMain.STATUS_ERROR));
+        Assert.assertEquals(-1, SuiteMain.parseFinishedIndex("Running specification..."));
+        Assert.assertEquals(-1, SuiteMain.parseFinishedIndex(SuiteMain.FINISHED + " x"));
+        Assert.assertEquals(-1, SuiteMain.parseFinishedIndex(SuiteMain.STARTED + " 3"));
+        Assert.assertEquals(-1, SuiteMain.parseFinishedIndex(null));
+    }
+
+    @Test
+    public void parseStartedIndex() {
+
+        Assert.assertEquals(2, SuiteMain.parseStartedIndex(SuiteMain.STARTED + " 2\n"));
+        Assert.assertEquals(-1, SuiteMain.parseStartedIndex(SuiteMain.FINISHED + " 2 " + SuiteMain.STATUS_OK));
+    }
+
+    @Test
+    public void markerAfterOutputWithoutLineSeparator() {
+
+        Assert.assertEquals(4, SuiteMain.parseFinishedIndex("Fixture output" + SuiteMain.FINISHED + " 4 " + SuiteMain.STATUS_OK + "\n"));
+        Assert.assertEquals(5, SuiteMain.parseStartedIndex("Runner output " + SuiteMain.STARTED + " 5\n"));
+        Assert.assertEquals(-1, SuiteMain.parseFinishedIndex("Fixture output" + SuiteMain.STARTED + " 4\n"));
+    }
+}